@@ -0,0 +1,13 @@
+-- 4) Migración: índice para la búsqueda de mascotas por dueño
+-- Ejecutar una sola vez sobre una BD creada con 01-schema_sql.sql.
+USE vet;
+
+-- MascotaDaoJdbc.buscarPorDuenio filtra por prefijo y pagina por (duenio, id):
+--   WHERE eliminado = FALSE AND duenio LIKE 'prefijo%'
+--     AND (duenio > ? OR (duenio = ? AND id > ?))
+--   ORDER BY duenio, id LIMIT ?
+-- Con eliminado primero (igualdad) y después duenio, id, el prefijo y el cursor son
+-- un único recorrido por rango del índice y las filas ya salen ordenadas: cada página
+-- lee solo sus filas, sin ordenar aparte ni leer toda la tabla.
+-- La collation utf8mb4_unicode_ci de la columna hace la comparación sin distinguir mayúsculas.
+CREATE INDEX idx_mascota_eliminado_duenio ON mascota (eliminado, duenio, id);
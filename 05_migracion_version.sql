@@ -0,0 +1,11 @@
+-- 5) Migración: columna version para el control de concurrencia optimista
+-- Ejecutar una sola vez sobre una BD creada con 01-schema_sql.sql.
+USE vet;
+
+-- MascotaDaoJdbc.actualizar y MicrochipDaoJdbc.actualizar escriben con
+--   UPDATE ... SET ..., version = version + 1 WHERE id = ? AND version = ?
+-- Si otra terminal modificó la fila después de leerla, no se actualiza ninguna fila
+-- y la aplicación informa el conflicto en lugar de pisar los cambios ajenos.
+-- Las filas existentes quedan en la versión 0.
+ALTER TABLE microchip ADD COLUMN version INT UNSIGNED NOT NULL DEFAULT 0;
+ALTER TABLE mascota   ADD COLUMN version INT UNSIGNED NOT NULL DEFAULT 0;
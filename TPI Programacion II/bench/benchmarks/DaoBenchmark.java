@@ -0,0 +1,184 @@
+package benchmarks;
+
+import config.DatabaseConnection;
+import config.TransactionManager;
+import dao.MascotaDaoJdbc;
+import dao.MicrochipDaoJdbc;
+import entities.Mascota;
+import entities.Microchip;
+import service.MascotaService;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks JMH de los caminos calientes de DAO y Service.
+ *
+ * Corre contra la BD configurada en db.* (ver DatabaseConfig):
+ * - por defecto el target "benchmark" de build.xml usa H2 en memoria en modo MySQL,
+ *   y este benchmark crea el esquema (sin triggers) y siembra los datos
+ * - con -Dbench.db=mysql usa la BD de db.properties, que debe tener
+ *   01-schema_sql.sql y 02_catalogos.sql ejecutados
+ *
+ * Los DAOs se miden directo (sin la caché de MascotaService).
+ *
+ * @author Astrid
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    /** Mascotas (con microchip) que debe haber como mínimo antes de medir. */
+    @Param({"10000"})
+    public int filas;
+
+    private static final String[] ESQUEMA_H2 = {
+        "CREATE TABLE IF NOT EXISTS microchip ("
+            + " id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+            + " eliminado BOOLEAN NOT NULL DEFAULT FALSE,"
+            + " codigo VARCHAR(25) NOT NULL UNIQUE,"
+            + " fecha_implantacion DATE NULL,"
+            + " veterinaria VARCHAR(120) NULL,"
+            + " observaciones VARCHAR(255) NULL,"
+            + " version INT NOT NULL DEFAULT 0)",
+        "CREATE TABLE IF NOT EXISTS mascota ("
+            + " id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+            + " eliminado BOOLEAN NOT NULL DEFAULT FALSE,"
+            + " nombre VARCHAR(60) NOT NULL,"
+            + " especie VARCHAR(30) NOT NULL,"
+            + " raza VARCHAR(60) NULL,"
+            + " fecha_nacimiento DATE NULL,"
+            + " duenio VARCHAR(120) NOT NULL,"
+            + " microchip_id BIGINT NULL UNIQUE,"
+            + " version INT NOT NULL DEFAULT 0,"
+            + " FOREIGN KEY (microchip_id) REFERENCES microchip(id) ON DELETE SET NULL)"
+    };
+
+    // Códigos de microchip únicos entre corridas sobre la misma BD
+    private static final AtomicLong SECUENCIA = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private MascotaDaoJdbc mascotaDao;
+    private MascotaService mascotaService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        if (DatabaseConnection.getConfig().getUrl().startsWith("jdbc:h2:")) {
+            crearEsquemaH2();
+        }
+        MicrochipDaoJdbc microchipDao = new MicrochipDaoJdbc();
+        mascotaDao = new MascotaDaoJdbc();
+        mascotaService = MascotaService.paraLotes(mascotaDao, microchipDao);
+
+        List<Long> existentes = new ArrayList<>(filas);
+        mascotaDao.recorrerTodos(m -> existentes.add(m.getId()));
+        if (existentes.size() < filas) {
+            List<Mascota> faltantes = new ArrayList<>();
+            for (int i = existentes.size(); i < filas; i++) {
+                faltantes.add(nuevaMascota(true));
+            }
+            for (Mascota m : mascotaService.insertarTodos(faltantes)) {
+                existentes.add(m.getId());
+            }
+        }
+        ids = existentes.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void crearEsquemaH2() throws SQLException {
+        try (Connection c = DatabaseConnection.getConnection(); Statement st = c.createStatement()) {
+            for (String ddl : ESQUEMA_H2) {
+                st.execute(ddl);
+            }
+        }
+    }
+
+    // Lecturas
+
+    @Benchmark
+    public Optional<Mascota> leerPorId() {
+        return mascotaDao.leer(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public List<Mascota> leerTodos() {
+        return mascotaDao.leerTodos();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public long recorrerTodos(Blackhole bh) {
+        return mascotaDao.recorrerTodos(m -> bh.consume(m));
+    }
+
+    // Escrituras
+
+    @Benchmark
+    public Mascota crearSinMicrochip() {
+        return mascotaDao.crear(nuevaMascota(false));
+    }
+
+    @Benchmark
+    public Mascota insertarConMicrochip() throws Exception {
+        return mascotaService.insertar(nuevaMascota(true));
+    }
+
+    @Benchmark
+    public Mascota insertarTransaccional() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            tx.startTransaction();
+            Mascota creada = mascotaService.insertar(nuevaMascota(true), conn);
+            tx.commit();
+            return creada;
+        }
+    }
+
+    private static Mascota nuevaMascota(boolean conMicrochip) {
+        long n = SECUENCIA.incrementAndGet();
+        Mascota m = new Mascota();
+        m.setNombre("Bench");
+        m.setEspecie("Perros");
+        m.setRaza("Beagle");
+        m.setFechaNacimiento(LocalDate.now().minusDays(n % 3650));
+        m.setDuenio("Duenio " + n);
+        if (conMicrochip) {
+            Microchip mc = new Microchip();
+            mc.setCodigo("B" + n);
+            mc.setFechaImplantacion(LocalDate.now());
+            mc.setVeterinaria("Sede Quilmes");
+            m.setMicrochip(mc);
+        }
+        return m;
+    }
+}
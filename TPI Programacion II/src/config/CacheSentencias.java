@@ -0,0 +1,165 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de PreparedStatement de una conexión física del pool, clave = plantilla SQL
+ * (más los flags de prepareStatement, ej. RETURN_GENERATED_KEYS).
+ *
+ * Las sentencias sobreviven a las distintas llamadas de DAO y a los distintos préstamos
+ * de la misma conexión: con useServerPrepStmts=true MySQL no vuelve a parsear el SQL.
+ * close() sobre la sentencia entregada no la cierra: limpia parámetros/lote y la deja
+ * libre para el próximo prepareStatement con el mismo SQL.
+ *
+ * Una conexión se usa desde un solo hilo a la vez (el pool la presta en exclusiva),
+ * por eso esta clase no sincroniza.
+ */
+final class CacheSentencias {
+
+    private final Connection conn;
+    private final LongAdder aciertos;
+    private final LongAdder fallos;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    CacheSentencias(Connection conn, int capacidad, LongAdder aciertos, LongAdder fallos) {
+        this.conn = conn;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        // Orden de acceso: al superar la capacidad se desaloja la sentencia menos usada
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > capacidad) {
+                    eldest.getValue().desalojar();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Solo se cachean prepareStatement(String[, int...]); las variantes con arrays pasan de largo. */
+    static boolean cacheable(Method method) {
+        if (!method.getName().equals("prepareStatement")) {
+            return false;
+        }
+        Class<?>[] tipos = method.getParameterTypes();
+        for (int i = 1; i < tipos.length; i++) {
+            if (tipos[i] != int.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    PreparedStatement preparar(Method method, Object[] args) throws Throwable {
+        String clave = args.length == 1
+                ? (String) args[0]
+                : args[0] + "|" + Arrays.toString(Arrays.copyOfRange(args, 1, args.length));
+        Entrada e = entradas.get(clave);
+        if (e != null && !e.enUso) {
+            e.enUso = true;
+            aciertos.increment();
+            return e.proxy;
+        }
+        fallos.increment();
+        PreparedStatement ps;
+        try {
+            ps = (PreparedStatement) method.invoke(conn, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+        if (e != null) {
+            // La misma sentencia ya está abierta (uso anidado): se entrega una suelta sin cachear
+            return ps;
+        }
+        Entrada nueva = new Entrada(clave, ps);
+        entradas.put(clave, nueva);
+        return nueva.proxy;
+    }
+
+    /** Sentencia cacheada y el proxy que se entrega al DAO. */
+    private final class Entrada implements InvocationHandler {
+        private final String clave;
+        private final PreparedStatement ps;
+        private final PreparedStatement proxy;
+        private boolean enUso = true;
+        private boolean desalojada;
+
+        private Entrada(String clave, PreparedStatement ps) {
+            this.clave = clave;
+            this.ps = ps;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    CacheSentencias.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        // Fuera de la caché: se cierra ya, o al devolverla si alguien la está usando
+        private void desalojar() {
+            desalojada = true;
+            if (!enUso) {
+                cerrarFisica();
+            }
+        }
+
+        private void cerrarFisica() {
+            try {
+                ps.close();
+            } catch (SQLException ex) {
+                System.err.println("Error al cerrar sentencia cacheada: " + ex.getMessage());
+            }
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (enUso) {
+                        enUso = false;
+                        liberar();
+                    }
+                    return null;
+                case "isClosed":
+                    return !enUso || ps.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                default:
+                    break;
+            }
+            if (!enUso) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+            try {
+                return method.invoke(ps, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        // Deja la sentencia lista para reutilizar; si algo falla, sale de la caché
+        private void liberar() {
+            if (desalojada) {
+                cerrarFisica();
+                return;
+            }
+            try {
+                ps.clearParameters();
+                ps.clearBatch();
+            } catch (SQLException ex) {
+                entradas.remove(clave);
+                cerrarFisica();
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexiones JDBC propio, detrás de DatabaseConnection.getConnection().
+ *
+ * Características:
+ * - Tamaño mínimo/máximo de conexiones físicas
+ * - Desalojo de conexiones ociosas (idleTimeout) y reciclado por vida máxima (maxLifetime)
+ * - Validación con Connection.isValid() al prestar una conexión
+ * - Cola de espera acotada: si el pool está lleno se espera hasta connectionTimeout,
+ *   y si ya hay maxWaiters hilos esperando se falla de inmediato
+ *
+ * Las conexiones prestadas son proxies: close() devuelve la conexión física al pool
+ * (con rollback y autoCommit=true si quedó una transacción abierta) en lugar de cerrarla.
+ * Por eso los DAOs y TransactionManager siguen usando try-with-resources sin cambios.
+ * Cada conexión física tiene su caché de PreparedStatement (CacheSentencias), así las
+ * sentencias repetidas no se vuelven a preparar en cada llamada de DAO.
+ * Con una grabación JFR activa, los PreparedStatement se envuelven con SentenciaJfr.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    private final DatabaseConfig config;
+
+    // LIFO: se presta primero la última devuelta, así las demás envejecen y se desalojan
+    private final LinkedBlockingDeque<ConexionFisica> ociosas = new LinkedBlockingDeque<>();
+
+    // Un permiso por conexión prestada: acota el total a maxSize
+    private final Semaphore cupos;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+    private final LongAdder sentenciasReusadas = new LongAdder();
+    private final LongAdder sentenciasPreparadas = new LongAdder();
+    private final ScheduledExecutorService mantenimiento;
+    private volatile boolean cerrado;
+
+    public ConnectionPool(DatabaseConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("La configuración no puede ser null");
+        }
+        if (config.getPoolMaxSize() <= 0 || config.getPoolMinSize() < 0
+                || config.getPoolMinSize() > config.getPoolMaxSize()) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: min="
+                    + config.getPoolMinSize() + ", max=" + config.getPoolMaxSize());
+        }
+        this.config = config;
+        this.cupos = new Semaphore(config.getPoolMaxSize(), true);
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vet-pool-mantenimiento");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodo = config.getHousekeepingPeriodMs();
+        // La primera pasada completa el mínimo sin bloquear al primer usuario
+        mantenimiento.scheduleWithFixedDelay(this::mantener, 0, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presta una conexión del pool.
+     * @throws SQLException si no hay conexión disponible dentro del timeout,
+     *                      si la cola de espera está llena o si falla la conexión física
+     */
+    public Connection getConnection() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        adquirirCupo();
+        try {
+            ConexionFisica fisica = tomarValida();
+            return envolver(fisica);
+        } catch (SQLException | RuntimeException e) {
+            cupos.release();
+            throw e;
+        }
+    }
+
+    private void adquirirCupo() throws SQLException {
+        if (cupos.tryAcquire()) {
+            return;
+        }
+        if (esperando.incrementAndGet() > config.getMaxWaiters()) {
+            esperando.decrementAndGet();
+            throw new SQLException("Pool saturado: demasiados hilos esperando conexión");
+        }
+        try {
+            if (!cupos.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timeout esperando una conexión del pool ("
+                        + config.getConnectionTimeoutMs() + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando una conexión del pool", e);
+        } finally {
+            esperando.decrementAndGet();
+        }
+    }
+
+    /** Toma una ociosa sana o abre una nueva. Se llama con el cupo ya adquirido. */
+    private ConexionFisica tomarValida() throws SQLException {
+        ConexionFisica fisica;
+        while ((fisica = ociosas.pollFirst()) != null) {
+            if (!fisica.vencida(config.getMaxLifetimeMs())
+                    && esValida(fisica.conn)) {
+                return fisica;
+            }
+            descartar(fisica);
+        }
+        return abrir();
+    }
+
+    private boolean esValida(Connection c) {
+        try {
+            return c.isValid(config.getValidationTimeoutSec());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private ConexionFisica abrir() throws SQLException {
+        Connection c = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+        int capacidad = config.getStatementCacheSize();
+        CacheSentencias sentencias = capacidad > 0
+                ? new CacheSentencias(c, capacidad, sentenciasReusadas, sentenciasPreparadas)
+                : null;
+        ConexionFisica fisica;
+        try {
+            fisica = new ConexionFisica(c, sentencias);
+        } catch (SQLException e) {
+            c.close();
+            throw e;
+        }
+        total.incrementAndGet();
+        return fisica;
+    }
+
+    private void descartar(ConexionFisica fisica) {
+        total.decrementAndGet();
+        try {
+            fisica.conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexión descartada: " + e.getMessage());
+        }
+    }
+
+    /** Devuelve la conexión física al pool, limpiando el estado que dejó el usuario. */
+    private void devolver(ConexionFisica fisica) {
+        try {
+            boolean sana = !cerrado && !fisica.conn.isClosed()
+                    && !fisica.vencida(config.getMaxLifetimeMs());
+            if (sana) {
+                if (!fisica.conn.getAutoCommit()) {
+                    fisica.conn.rollback();
+                    fisica.conn.setAutoCommit(true);
+                }
+                // readOnly e aislamiento vuelven a los del driver: no pasan al próximo usuario
+                if (fisica.conn.isReadOnly() != fisica.soloLecturaOriginal) {
+                    fisica.conn.setReadOnly(fisica.soloLecturaOriginal);
+                }
+                if (fisica.conn.getTransactionIsolation() != fisica.aislamientoOriginal) {
+                    fisica.conn.setTransactionIsolation(fisica.aislamientoOriginal);
+                }
+                fisica.ultimoUso = System.nanoTime();
+                // Se reencola antes de liberar el cupo para no abrir conexiones de más
+                ociosas.offerFirst(fisica);
+            } else {
+                descartar(fisica);
+            }
+        } catch (SQLException e) {
+            descartar(fisica);
+        } finally {
+            cupos.release();
+        }
+    }
+
+    /** Tarea periódica: desaloja ociosas/vencidas y repone hasta el mínimo. */
+    private void mantener() {
+        if (cerrado) {
+            return;
+        }
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMs());
+        long ahora = System.nanoTime();
+        Iterator<ConexionFisica> it = ociosas.descendingIterator();
+        while (it.hasNext()) {
+            ConexionFisica fisica = it.next();
+            boolean ociosaDeMas = ahora - fisica.ultimoUso > idleNanos
+                    && total.get() > config.getPoolMinSize();
+            if ((ociosaDeMas || fisica.vencida(config.getMaxLifetimeMs()))
+                    && ociosas.removeFirstOccurrence(fisica)) {
+                descartar(fisica);
+            }
+        }
+        try {
+            while (!cerrado && total.get() < config.getPoolMinSize()) {
+                ociosas.offerLast(abrir());
+            }
+        } catch (SQLException e) {
+            // La BD puede no estar disponible todavía; se reintenta en la próxima pasada
+        }
+    }
+
+    private Connection envolver(ConexionFisica fisica) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexionPrestada(fisica));
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getOciosas() {
+        return ociosas.size();
+    }
+
+    public int getEsperando() {
+        return esperando.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{total=" + getTotal() + ", ociosas=" + getOciosas()
+                + ", enUso=" + (config.getPoolMaxSize() - cupos.availablePermits())
+                + ", esperando=" + getEsperando()
+                + ", sentenciasReusadas=" + sentenciasReusadas.sum()
+                + ", sentenciasPreparadas=" + sentenciasPreparadas.sum() + "}";
+    }
+
+    /** Cierra todas las conexiones ociosas; las prestadas se cierran al devolverse. */
+    @Override
+    public void close() {
+        cerrado = true;
+        mantenimiento.shutdownNow();
+        ConexionFisica fisica;
+        while ((fisica = ociosas.pollFirst()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    /** Conexión física con sus marcas de tiempo y su caché de sentencias (null si está desactivada). */
+    private static final class ConexionFisica {
+        private final Connection conn;
+        private final CacheSentencias sentencias;
+        // Valores con que la abrió el driver; devolver() los restaura
+        private final boolean soloLecturaOriginal;
+        private final int aislamientoOriginal;
+        private final long creadaEn = System.nanoTime();
+        private volatile long ultimoUso = creadaEn;
+
+        private ConexionFisica(Connection conn, CacheSentencias sentencias) throws SQLException {
+            this.conn = conn;
+            this.sentencias = sentencias;
+            this.soloLecturaOriginal = conn.isReadOnly();
+            this.aislamientoOriginal = conn.getTransactionIsolation();
+        }
+
+        private boolean vencida(long maxLifetimeMs) {
+            return maxLifetimeMs > 0
+                    && System.nanoTime() - creadaEn > TimeUnit.MILLISECONDS.toNanos(maxLifetimeMs);
+        }
+    }
+
+    /**
+     * Handler del proxy entregado al usuario.
+     * close() devuelve al pool una sola vez; después de eso la conexión queda inutilizable.
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        private final ConexionFisica fisica;
+        // close() puede llegar desde otro hilo que el que usa la conexión
+        private final AtomicBoolean devuelta = new AtomicBoolean();
+
+        private ConexionPrestada(ConexionFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (devuelta.compareAndSet(false, true)) {
+                        devolver(fisica);
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta.get() || fisica.conn.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + fisica.conn + "]";
+                default:
+                    break;
+            }
+            if (devuelta.get()) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            Object resultado;
+            if (fisica.sentencias != null && CacheSentencias.cacheable(method)) {
+                resultado = fisica.sentencias.preparar(method, args);
+            } else {
+                try {
+                    resultado = method.invoke(fisica.conn, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            // Con una grabación JFR activa, cada sentencia emite un EventoSentenciaSql
+            if (method.getName().equals("prepareStatement") && SentenciaJfr.habilitado()) {
+                return SentenciaJfr.envolver((PreparedStatement) resultado, (String) args[0]);
+            }
+            return resultado;
+        }
+    }
+}
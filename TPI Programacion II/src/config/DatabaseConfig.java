@@ -0,0 +1,250 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Configuración externa de acceso a la base de datos y del pool de conexiones.
+ *
+ * Orden de carga (cada paso pisa al anterior):
+ * 1. config/db.properties empaquetado en el classpath (valores por defecto)
+ * 2. db.properties en el directorio de trabajo, o el archivo indicado con -Dvet.db.config
+ * 3. Propiedades de sistema con el mismo nombre de clave (ej: -Ddb.url=...)
+ *
+ * Así cada despliegue puede dimensionar el pool sin recompilar.
+ */
+public final class DatabaseConfig {
+
+    private static final String RECURSO_POR_DEFECTO = "/config/db.properties";
+    private static final String ARCHIVO_LOCAL = "db.properties";
+    private static final String PROP_ARCHIVO = "vet.db.config";
+    // Prefijos de las claves que se pueden pisar con -D
+    private static final String[] PREFIJOS = {"db.", "pool.", "dao.", "cache.", "metricas.", "tx."};
+
+    private final Properties props;
+
+    private DatabaseConfig(Properties props) {
+        this.props = props;
+    }
+
+    /**
+     * Carga la configuración siguiendo el orden documentado en la clase.
+     * @throws IllegalStateException si el archivo indicado no se puede leer
+     */
+    public static DatabaseConfig cargar() {
+        Properties p = new Properties();
+
+        try (InputStream in = DatabaseConfig.class.getResourceAsStream(RECURSO_POR_DEFECTO)) {
+            if (in != null) {
+                p.load(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la configuración por defecto", e);
+        }
+
+        String externo = System.getProperty(PROP_ARCHIVO);
+        Path archivo = externo != null ? Paths.get(externo) : Paths.get(ARCHIVO_LOCAL);
+        if (Files.isRegularFile(archivo)) {
+            try (InputStream in = Files.newInputStream(archivo)) {
+                p.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo leer la configuración: " + archivo, e);
+            }
+        } else if (externo != null) {
+            throw new IllegalStateException("No existe el archivo de configuración: " + archivo);
+        }
+
+        for (String clave : System.getProperties().stringPropertyNames()) {
+            for (String prefijo : PREFIJOS) {
+                if (clave.startsWith(prefijo)) {
+                    p.setProperty(clave, System.getProperty(clave));
+                }
+            }
+        }
+        return new DatabaseConfig(p);
+    }
+
+    public String getDriver() {
+        return props.getProperty("db.driver", "com.mysql.cj.jdbc.Driver");
+    }
+
+    public String getUrl() {
+        return props.getProperty("db.url", "");
+    }
+
+    public String getUser() {
+        return props.getProperty("db.user", "");
+    }
+
+    public String getPassword() {
+        return props.getProperty("db.password", "");
+    }
+
+    public int getPoolMinSize() {
+        return getInt("pool.minSize", 2);
+    }
+
+    public int getPoolMaxSize() {
+        return getInt("pool.maxSize", 10);
+    }
+
+    public long getIdleTimeoutMs() {
+        return getLong("pool.idleTimeoutMs", 300_000L);
+    }
+
+    public long getMaxLifetimeMs() {
+        return getLong("pool.maxLifetimeMs", 1_800_000L);
+    }
+
+    public long getConnectionTimeoutMs() {
+        return getLong("pool.connectionTimeoutMs", 5_000L);
+    }
+
+    public int getMaxWaiters() {
+        return getInt("pool.maxWaiters", 50);
+    }
+
+    public int getValidationTimeoutSec() {
+        return getInt("pool.validationTimeoutSec", 2);
+    }
+
+    public long getHousekeepingPeriodMs() {
+        return getLong("pool.housekeepingPeriodMs", 30_000L);
+    }
+
+    /** PreparedStatement cacheados por conexión física (0 = sin caché). */
+    public int getStatementCacheSize() {
+        return getInt("pool.statementCacheSize", 50);
+    }
+
+    /** Filas por viaje al servidor en los recorridos en streaming (cursor del lado de MySQL). */
+    public int getFetchSize() {
+        return getInt("dao.fetchSize", 500);
+    }
+
+    /** Filas por executeBatch() en las inserciones masivas (crearTodos). */
+    public int getBatchSize() {
+        return getInt("dao.batchSize", 1000);
+    }
+
+    /** Valores distintos por diccionario de especie/raza/veterinaria (0 = no se comparten). */
+    public int getDiccionarioMaximo() {
+        return getInt("dao.diccionarioMaximo", 1024);
+    }
+
+    /** Entidades por tipo en la caché de lecturas por id de los services. */
+    public int getCacheCapacidad() {
+        return getInt("cache.capacidad", 10_000);
+    }
+
+    /** Vida de cada entrada de la caché de lecturas (ms, 0 = sin vencimiento). */
+    public long getCacheTtlMs() {
+        return getLong("cache.ttlMs", 60_000L);
+    }
+
+    /** Índice en memoria codigo → id de microchips, cargado al iniciar la aplicación. */
+    public boolean isIndiceCodigosHabilitado() {
+        return Boolean.parseBoolean(props.getProperty("cache.indiceCodigos", "true").trim());
+    }
+
+    /** Autocompletado en memoria de nombres de mascota y dueños, cargado al iniciar la aplicación. */
+    public boolean isAutocompletadoHabilitado() {
+        return Boolean.parseBoolean(props.getProperty("cache.autocompletado", "true").trim());
+    }
+
+    /** Búsqueda fonética de dueños en memoria, cargada al iniciar la aplicación. */
+    public boolean isBusquedaFoneticaHabilitada() {
+        return Boolean.parseBoolean(props.getProperty("cache.busquedaFonetica", "true").trim());
+    }
+
+    /** Hilos (cada uno con su conexión) que cargan en paralelo la búsqueda fonética. */
+    public int getBusquedaFoneticaHilos() {
+        return getInt("cache.foneticaHilos", 4);
+    }
+
+    /** Período de recarga de los catálogos de especie/raza y veterinarias (ms, 0 = no se recargan). */
+    public long getCatalogosRefrescoMs() {
+        return getLong("cache.catalogosRefrescoMs", 300_000L);
+    }
+
+    /** Tasa de falsos positivos buscada en el filtro de Bloom de códigos de microchip. */
+    public double getBloomTasaFalsosPositivos() {
+        return getDouble("cache.bloomFpr", 0.01);
+    }
+
+    /** Altas previstas por encima de los códigos existentes al dimensionar el filtro de Bloom. */
+    public long getBloomMargen() {
+        return getLong("cache.bloomMargen", 1_000_000L);
+    }
+
+    /** Archivo donde volcar periódicamente las métricas de los DAOs (vacío = no se vuelca). */
+    public String getMetricasArchivo() {
+        return props.getProperty("metricas.archivo", "").trim();
+    }
+
+    public long getMetricasPeriodoMs() {
+        return getLong("metricas.periodoMs", 60_000L);
+    }
+
+    /** Reintentos de TransactionManager.ejecutar ante deadlock o lock wait timeout (0 = sin reintentos). */
+    public int getTxReintentos() {
+        return getInt("tx.reintentos", 5);
+    }
+
+    /** Espera base antes del primer reintento; se duplica en cada uno (ms). */
+    public long getTxEsperaInicialMs() {
+        return getLong("tx.esperaInicialMs", 50L);
+    }
+
+    /** Tope de la espera entre dos reintentos (ms). */
+    public long getTxEsperaMaximaMs() {
+        return getLong("tx.esperaMaximaMs", 2_000L);
+    }
+
+    /** Tiempo total que puede llevar una unidad de trabajo con sus reintentos (ms). */
+    public long getTxPresupuestoMs() {
+        return getLong("tx.presupuestoMs", 10_000L);
+    }
+
+    // Lectura tipada con valor por defecto
+
+    private int getInt(String clave, int porDefecto) {
+        String valor = props.getProperty(clave);
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valor inválido para " + clave + ": " + valor, e);
+        }
+    }
+
+    private double getDouble(String clave, double porDefecto) {
+        String valor = props.getProperty(clave);
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        try {
+            return Double.parseDouble(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valor inválido para " + clave + ": " + valor, e);
+        }
+    }
+
+    private long getLong(String clave, long porDefecto) {
+        String valor = props.getProperty(clave);
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Valor inválido para " + clave + ": " + valor, e);
+        }
+    }
+}
@@ -1,38 +1,63 @@
 package config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public final class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/vet";
-    private static final String USER = "root";
-    private static final String PASS = "";
+    // 🔹 URL, usuario, clave y tamaño del pool se leen de db.properties (ver DatabaseConfig)
+    private static final DatabaseConfig CONFIG = DatabaseConfig.cargar();
+    private static volatile ConnectionPool pool;
 
     static {
         try {
-            // 🔹 Carga del driver JDBC de MySQL una sola vez
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            // 🔹 Carga del driver JDBC (MySQL por defecto) una sola vez
+            Class.forName(CONFIG.getDriver());
         } catch (ClassNotFoundException e) {
             // 🔹 Se lanza una excepción en caso de que el driver no esté disponible
             throw new RuntimeException("Error: No se encontró el driver JDBC.", e);
         }
     }
+
+    private DatabaseConnection() {
+    }
     
         /**
      * 🔹 Método para obtener una conexión a la base de datos.
+     * La conexión sale del pool; al cerrarla (close()) vuelve al pool en vez de cerrar el socket.
      * @return Connection si la conexión es exitosa.
      * @throws SQLException Si hay un problema al conectarse.
      */
     public static Connection getConnection() throws SQLException {
         // Validación adicional para asegurarse de que las credenciales no estén vacías
-        if (URL == null || URL.isEmpty() || USER == null || USER.isEmpty()) {
+        if (CONFIG.getUrl().isEmpty() || CONFIG.getUser().isEmpty()) {
             throw new SQLException("Configuración de la base de datos incompleta o inválida.");
         }
-        return DriverManager.getConnection(URL, USER, PASS);
+        return getPool().getConnection();
+    }
+
+    /**
+     * 🔹 Pool compartido, creado en el primer uso (la app arranca aunque la BD no esté levantada).
+     * @return el pool de conexiones de la aplicación
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DatabaseConnection.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ConnectionPool(CONFIG);
+                    ConnectionPool creado = p;
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(creado::close, "vet-pool-cierre"));
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /** 🔹 Configuración efectiva cargada al iniciar. */
+    public static DatabaseConfig getConfig() {
+        return CONFIG;
     }
-    
-    
-    
-    
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de una sentencia SQL ejecutada por una conexión del pool.
+ * En consultas la duración incluye la lectura del ResultSet hasta su cierre;
+ * en updates y batches, la ejecución. El stack trace del evento muestra
+ * qué operación del menú/DAO la disparó.
+ */
+@Name("vet.SentenciaSql")
+@Label("Sentencia SQL")
+@Category({"Veterinaria", "JDBC"})
+@Description("Ejecución de una sentencia preparada con su plantilla SQL y filas afectadas")
+class EventoSentenciaSql extends Event {
+
+    @Label("SQL")
+    @Description("Plantilla SQL con parámetros '?'")
+    String sql;
+
+    @Label("Tipo")
+    @Description("query, update o batch")
+    String tipo;
+
+    @Label("Filas")
+    @Description("Filas leídas (query) o afectadas (update/batch)")
+    long filas;
+}
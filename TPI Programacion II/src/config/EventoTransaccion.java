@@ -0,0 +1,27 @@
+package config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de una transacción de TransactionManager.
+ * Empieza en startTransaction() y se cierra en commit() o rollback(),
+ * así su duración es el tiempo total que la transacción estuvo abierta.
+ */
+@Name("vet.Transaccion")
+@Label("Transacción")
+@Category({"Veterinaria", "JDBC"})
+@Description("Transacción JDBC desde startTransaction hasta commit/rollback")
+class EventoTransaccion extends Event {
+
+    @Label("Resultado")
+    @Description("COMMIT o ROLLBACK")
+    String resultado;
+
+    @Label("Intento")
+    @Description("Número de intento dentro de TransactionManager.ejecutar (0 = transacción manual)")
+    int intento;
+}
@@ -0,0 +1,130 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import jdk.jfr.EventType;
+
+/**
+ * Envuelve un PreparedStatement para emitir un EventoSentenciaSql por ejecución.
+ * Solo se envuelve si el evento está habilitado en la grabación JFR activa;
+ * sin grabación, ConnectionPool entrega el statement del driver tal cual.
+ */
+final class SentenciaJfr implements InvocationHandler {
+
+    private static final EventType TIPO = EventType.getEventType(EventoSentenciaSql.class);
+
+    private final PreparedStatement ps;
+    private final String sql;
+
+    // Evento de la última consulta, pendiente hasta cerrar su ResultSet
+    private EventoSentenciaSql pendiente;
+
+    private SentenciaJfr(PreparedStatement ps, String sql) {
+        this.ps = ps;
+        this.sql = sql;
+    }
+
+    static boolean habilitado() {
+        return TIPO.isEnabled();
+    }
+
+    static PreparedStatement envolver(PreparedStatement ps, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                SentenciaJfr.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new SentenciaJfr(ps, sql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String nombre = method.getName();
+        boolean sinArgumentos = args == null || args.length == 0;
+        if (sinArgumentos && nombre.equals("executeQuery")) {
+            cerrarPendiente();
+            EventoSentenciaSql evento = nuevoEvento("query");
+            ResultSet rs = (ResultSet) delegar(method, args);
+            pendiente = evento;
+            return envolverResultSet(rs, evento);
+        }
+        if (sinArgumentos && (nombre.equals("executeUpdate") || nombre.equals("executeLargeUpdate")
+                || nombre.equals("executeBatch") || nombre.equals("executeLargeBatch") || nombre.equals("execute"))) {
+            EventoSentenciaSql evento = nuevoEvento(nombre.contains("Batch") ? "batch" : "update");
+            Object resultado = delegar(method, args);
+            evento.filas = contarFilas(resultado);
+            evento.commit();
+            return resultado;
+        }
+        if (nombre.equals("close")) {
+            cerrarPendiente();
+        }
+        return delegar(method, args);
+    }
+
+    private EventoSentenciaSql nuevoEvento(String tipo) {
+        EventoSentenciaSql evento = new EventoSentenciaSql();
+        evento.sql = sql;
+        evento.tipo = tipo;
+        evento.begin();
+        return evento;
+    }
+
+    private long contarFilas(Object resultado) throws Exception {
+        if (resultado instanceof Number) {
+            return ((Number) resultado).longValue();
+        }
+        if (resultado instanceof int[]) {
+            long total = 0;
+            for (int n : (int[]) resultado) {
+                total += Math.max(n, 0);
+            }
+            return total;
+        }
+        if (resultado instanceof long[]) {
+            long total = 0;
+            for (long n : (long[]) resultado) {
+                total += Math.max(n, 0);
+            }
+            return total;
+        }
+        // execute(): true si devolvió ResultSet
+        return Boolean.FALSE.equals(resultado) ? Math.max(ps.getUpdateCount(), 0) : 0;
+    }
+
+    private void cerrarPendiente() {
+        if (pendiente != null) {
+            pendiente.commit();
+            pendiente = null;
+        }
+    }
+
+    // El ResultSet cuenta las filas leídas y cierra el evento al cerrarse
+    private ResultSet envolverResultSet(ResultSet rs, EventoSentenciaSql evento) {
+        InvocationHandler h = (proxy, method, args) -> {
+            Object r = delegar(rs, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(r)) {
+                evento.filas++;
+            } else if (method.getName().equals("close") && pendiente == evento) {
+                cerrarPendiente();
+            }
+            return r;
+        };
+        return (ResultSet) Proxy.newProxyInstance(
+                SentenciaJfr.class.getClassLoader(), new Class<?>[]{ResultSet.class}, h);
+    }
+
+    private Object delegar(Method method, Object[] args) throws Throwable {
+        return delegar(ps, method, args);
+    }
+
+    private static Object delegar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
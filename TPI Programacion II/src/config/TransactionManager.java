@@ -2,10 +2,58 @@ package config;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 public class TransactionManager implements AutoCloseable {
+
+    // MySQL: deadlock detectado (el servidor ya deshizo la transacción) y lock wait timeout
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    // SQLState estándar de "serialization failure" (deadlock en MySQL y H2)
+    private static final String SQLSTATE_SERIALIZACION = "40001";
+
+    private static final int REINTENTOS = DatabaseConnection.getConfig().getTxReintentos();
+    private static final long ESPERA_INICIAL_MS = DatabaseConnection.getConfig().getTxEsperaInicialMs();
+    private static final long ESPERA_MAXIMA_MS = DatabaseConnection.getConfig().getTxEsperaMaximaMs();
+    private static final long PRESUPUESTO_MS = DatabaseConnection.getConfig().getTxPresupuestoMs();
+
+    // Métricas de ejecutar(), compartidas por todas las instancias
+    private static final LongAdder EJECUCIONES = new LongAdder();
+    private static final LongAdder REINTENTOS_DEADLOCK = new LongAdder();
+    private static final LongAdder REINTENTOS_TIMEOUT = new LongAdder();
+    private static final LongAdder AGOTADAS = new LongAdder();
+    private static final LongAdder ESPERA_TOTAL_MS = new LongAdder();
+    // Unidades anidadas (ejecutarAnidado) que fallaron y se deshicieron hasta su savepoint
+    private static final LongAdder ANIDADAS_DESHECHAS = new LongAdder();
+
+    // Transacción en curso de cada conexión, para despuesDelCommit()
+    private static final Map<Connection, TransactionManager> ACTIVAS = new ConcurrentHashMap<>();
+
     private Connection conn;
     private boolean transactionActive;
+    // Acciones en memoria (cachés, índices) que solo valen si la transacción se confirma
+    private final List<Runnable> alConfirmar = new ArrayList<>();
+    // Evento JFR de la transacción en curso (duración de start a commit/rollback)
+    private EventoTransaccion evento;
+    // Intento de ejecutar() al que pertenece la transacción en curso (0 fuera de ejecutar)
+    private int intento;
+
+    /**
+     * Trabajo de una transacción. ejecutar() lo puede correr más de una vez:
+     * cada intento debe armar sus datos desde cero y no dejar efectos que no
+     * se deshagan con el rollback (ids asignados a entidades de afuera, etc.).
+     */
+    @FunctionalInterface
+    public interface UnidadDeTrabajo<T> {
+        T ejecutar(Connection conn) throws Exception;
+    }
 
     public TransactionManager(Connection conn) throws SQLException {
         if (conn == null) {
@@ -28,6 +76,11 @@ public class TransactionManager implements AutoCloseable {
         }
         conn.setAutoCommit(false);
         transactionActive = true;
+        alConfirmar.clear();
+        ACTIVAS.put(conn, this);
+        evento = new EventoTransaccion();
+        evento.intento = intento;
+        evento.begin();
     }
 
     public void commit() throws SQLException {
@@ -39,19 +92,193 @@ public class TransactionManager implements AutoCloseable {
         }
         conn.commit();
         transactionActive = false;
+        ACTIVAS.remove(conn);
+        registrarFin("COMMIT");
+        List<Runnable> acciones = new ArrayList<>(alConfirmar);
+        alConfirmar.clear();
+        for (Runnable accion : acciones) {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                // El commit ya se hizo: un fallo acá no lo deshace
+                System.err.println("Error en una acción posterior al commit: " + e.getMessage());
+            }
+        }
     }
 
     public void rollback() {
         if (conn != null && transactionActive) {
+            alConfirmar.clear();
+            ACTIVAS.remove(conn);
             try {
                 conn.rollback();
                 transactionActive = false;
+                registrarFin("ROLLBACK");
             } catch (SQLException e) {
                 System.err.println("Error durante el rollback: " + e.getMessage());
             }
         }
     }
 
+    /**
+     * Corre el trabajo en una transacción y hace commit. Si falla por deadlock o
+     * lock wait timeout hace rollback, espera un tiempo aleatorio que crece
+     * exponencialmente (así los hilos que chocaron no vuelven a chocar al mismo
+     * tiempo) y lo repite, hasta tx.reintentos veces sin pasar de tx.presupuestoMs.
+     * Cualquier otro error se propaga enseguida, después del rollback.
+     *
+     * @return lo que devuelve el trabajo en el intento que hizo commit
+     */
+    public <T> T ejecutar(UnidadDeTrabajo<T> trabajo) throws Exception {
+        if (transactionActive) {
+            throw new SQLException("Ya hay una transacción activa en esta conexión");
+        }
+        EJECUCIONES.increment();
+        long inicio = System.currentTimeMillis();
+        try {
+            for (intento = 1; ; intento++) {
+                startTransaction();
+                try {
+                    T resultado = trabajo.ejecutar(conn);
+                    commit();
+                    return resultado;
+                } catch (Exception e) {
+                    rollback();
+                    SQLException causa = causaTransitoria(e);
+                    if (causa == null) {
+                        throw e;
+                    }
+                    long espera = espera(intento);
+                    if (intento > REINTENTOS || System.currentTimeMillis() - inicio + espera > PRESUPUESTO_MS) {
+                        AGOTADAS.increment();
+                        throw e;
+                    }
+                    (causa.getErrorCode() == ER_LOCK_WAIT_TIMEOUT ? REINTENTOS_TIMEOUT : REINTENTOS_DEADLOCK).increment();
+                    ESPERA_TOTAL_MS.add(espera);
+                    try {
+                        Thread.sleep(espera);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            intento = 0;
+        }
+    }
+
+    // Savepoints: deshacer parte de una transacción sin perder el resto
+
+    /**
+     * Marca un punto de la transacción activa al que se puede volver con rollbackHasta().
+     * @throws SQLException si no hay una transacción activa
+     */
+    public Savepoint crearSavepoint() throws SQLException {
+        if (!transactionActive) {
+            throw new SQLException("No hay una transacción activa para crear un savepoint");
+        }
+        return conn.setSavepoint();
+    }
+
+    /** Deshace lo hecho desde el savepoint; la transacción sigue activa. */
+    public void rollbackHasta(Savepoint savepoint) throws SQLException {
+        if (!transactionActive) {
+            throw new SQLException("No hay una transacción activa para volver al savepoint");
+        }
+        conn.rollback(savepoint);
+    }
+
+    /** Libera el savepoint (lo hecho desde él queda como parte de la transacción). */
+    public void liberar(Savepoint savepoint) throws SQLException {
+        if (transactionActive) {
+            conn.releaseSavepoint(savepoint);
+        }
+    }
+
+    /**
+     * Corre el trabajo como unidad anidada dentro de la transacción activa: si falla,
+     * se deshace solo lo que hizo el trabajo (rollback hasta su savepoint), la excepción
+     * se propaga y quien llama decide si sigue con el resto de la transacción.
+     *
+     * Un deadlock o lock wait timeout se propaga sin tocar el savepoint: MySQL ya deshizo
+     * (o puede haber deshecho) la transacción completa y se debe reintentar entera.
+     */
+    public <T> T ejecutarAnidado(UnidadDeTrabajo<T> trabajo) throws Exception {
+        Savepoint savepoint = crearSavepoint();
+        int accionesPrevias = alConfirmar.size();
+        T resultado;
+        try {
+            resultado = trabajo.ejecutar(conn);
+        } catch (Exception e) {
+            if (causaTransitoria(e) == null) {
+                rollbackHasta(savepoint);
+                // Lo que registró el trabajo deshecho ya no se aplica en el commit
+                alConfirmar.subList(accionesPrevias, alConfirmar.size()).clear();
+                ANIDADAS_DESHECHAS.increment();
+            }
+            throw e;
+        }
+        liberar(savepoint);
+        return resultado;
+    }
+
+    /**
+     * Corre la acción cuando se confirme la transacción en curso de {@code conn}
+     * (y la descarta si se deshace). Los services la usan para actualizar cachés e
+     * índices en memoria: si lo hicieran antes del commit, una lectura concurrente
+     * podría volver a cachear la fila vieja, y un rollback dejaría entradas fantasma.
+     * Sin transacción de TransactionManager (autocommit) la acción corre enseguida.
+     */
+    public static void despuesDelCommit(Connection conn, Runnable accion) {
+        TransactionManager tx = conn != null ? ACTIVAS.get(conn) : null;
+        if (tx == null) {
+            accion.run();
+        } else {
+            tx.alConfirmar.add(accion);
+        }
+    }
+
+    /** ¿El error es un deadlock o lock wait timeout (se resuelve reintentando la transacción)? */
+    public static boolean esTransitorio(Throwable error) {
+        return causaTransitoria(error) != null;
+    }
+
+    /**
+     * La SQLException de deadlock o lock wait timeout en la cadena de causas
+     * (los DAOs la envuelven en RuntimeException), o null si el error no es transitorio.
+     */
+    static SQLException causaTransitoria(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if (sql instanceof SQLTransactionRollbackException
+                        || SQLSTATE_SERIALIZACION.equals(sql.getSQLState())
+                        || sql.getErrorCode() == ER_LOCK_DEADLOCK
+                        || sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                    return sql;
+                }
+            }
+        }
+        return null;
+    }
+
+    // "Full jitter": uniforme entre 0 y min(máxima, inicial * 2^(intento-1))
+    private static long espera(int intento) {
+        long tope = ESPERA_INICIAL_MS << Math.min(intento - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(tope, ESPERA_MAXIMA_MS) + 1);
+    }
+
+    /** Reintentos de ejecutar() desde que arrancó la aplicación, para la pantalla de estadísticas. */
+    public static String getEstadisticasReintentos() {
+        return "Transacciones{ejecuciones=" + EJECUCIONES.sum()
+                + ", reintentosDeadlock=" + REINTENTOS_DEADLOCK.sum()
+                + ", reintentosLockTimeout=" + REINTENTOS_TIMEOUT.sum()
+                + ", agotadas=" + AGOTADAS.sum()
+                + ", esperaTotalMs=" + ESPERA_TOTAL_MS.sum()
+                + ", anidadasDeshechas=" + ANIDADAS_DESHECHAS.sum() + "}";
+    }
+
     @Override
     public void close() {
         if (conn != null) {
@@ -70,5 +297,13 @@ public class TransactionManager implements AutoCloseable {
     public boolean isTransactionActive() {
         return transactionActive;
     }
-    
+
+    private void registrarFin(String resultado) {
+        if (evento != null) {
+            evento.resultado = resultado;
+            evento.commit();
+            evento = null;
+        }
+    }
+
 }
@@ -0,0 +1,82 @@
+package dao;
+
+import config.TransactionManager;
+import entities.Base;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UPDATE de las columnas modificadas de una entidad, compartido por los DAOs.
+ *
+ * Solo entran al SET las columnas que la entidad marca como modificadas (ver
+ * {@link Base#isModificado(String)}), siempre en el orden de la lista del DAO:
+ * el mismo conjunto de cambios genera el mismo SQL y lo reaprovecha la caché de
+ * sentencias. Si no cambió nada no se envía ninguna sentencia. Una entidad sin
+ * seguimiento (armada a mano, no leída de la BD) se rechaza: no tiene una versión
+ * leída contra la cual comparar; hay que leerla primero y modificar esa copia.
+ *
+ * El UPDATE es un compare-and-set sobre la columna version: se aplica solo si la
+ * fila sigue en la versión con que se leyó la entidad, y la incrementa. Dos
+ * terminales que editan la misma fila no se pisan y no se retiene ningún bloqueo
+ * mientras el usuario completa el formulario.
+ *
+ * La versión nueva y las columnas escritas se pasan a la entidad recién con el
+ * commit (TransactionManager.despuesDelCommit): si la transacción se deshace o
+ * ejecutar() la repite tras un deadlock, la entidad sigue con la versión leída y
+ * sus cambios pendientes, y el próximo intento vuelve a escribirlos.
+ */
+final class ActualizacionParcial {
+
+    /** Carga el valor de una columna en la posición indicada. */
+    @FunctionalInterface
+    interface CargadorColumna<T> {
+        void cargar(PreparedStatement ps, int indice, String columna, T entidad) throws SQLException;
+    }
+
+    private ActualizacionParcial() {
+    }
+
+    /**
+     * Ejecuta {@code UPDATE tabla SET <modificadas>, version = version + 1 WHERE id=? AND version=?}
+     * y, cuando se confirma la transacción, deja la entidad con la versión nueva y sin
+     * esas columnas pendientes.
+     * @return false si no había nada que escribir (no se ejecutó ninguna sentencia)
+     * @throws ConflictoConcurrenciaException si la fila cambió de versión o ya no existe
+     * @throws IllegalArgumentException si la entidad no tiene seguimiento (no se leyó de la BD)
+     */
+    static <T extends Base> boolean ejecutar(Connection c, String tabla, List<String> columnas,
+                                             T entidad, CargadorColumna<T> cargador) throws SQLException {
+        if (entidad.getModificados() == null) {
+            throw new IllegalArgumentException("El registro " + entidad.getId() + " de " + tabla
+                    + " no se leyó de la base de datos: búsquelo y modifique esa copia");
+        }
+        List<String> modificadas = new ArrayList<>(columnas.size());
+        for (String columna : columnas) {
+            if (entidad.isModificado(columna)) {
+                modificadas.add(columna);
+            }
+        }
+        if (modificadas.isEmpty()) {
+            return false;
+        }
+        String sql = "UPDATE " + tabla + " SET " + String.join("=?, ", modificadas)
+                + "=?, version = version + 1 WHERE id=? AND version=?";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            for (String columna : modificadas) {
+                cargador.cargar(ps, i++, columna, entidad);
+            }
+            ps.setLong(i++, entidad.getId());
+            ps.setLong(i, entidad.getVersion());
+            if (ps.executeUpdate() == 0) {
+                throw new ConflictoConcurrenciaException(tabla, entidad.getId(), entidad.getVersion());
+            }
+        }
+        long versionNueva = entidad.getVersion() + 1;
+        TransactionManager.despuesDelCommit(c, () -> entidad.confirmarEscritura(versionNueva, modificadas));
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * UPDATE sobre una lista de ids compartido por los DAOs (bajas y recuperaciones masivas).
+ *
+ * Los ids se envían en tramos de {@code WHERE id IN (?, ?, ...)}: una sentencia por tramo
+ * en lugar de una por id. Se ordenan y deduplican antes de partirlos, así todos los
+ * tramos menos el último tienen el mismo SQL (lo reaprovecha la caché de sentencias)
+ * y las filas se bloquean siempre en el mismo orden.
+ */
+final class ActualizacionPorIds {
+
+    /** Marca de la plantilla que se reemplaza por la lista de parámetros del tramo. */
+    static final String IDS = "{ids}";
+
+    private ActualizacionPorIds() {
+    }
+
+    /**
+     * Ids ordenados y sin repetidos.
+     * @throws IllegalArgumentException si la colección es null o contiene ids null o no positivos
+     */
+    static List<Long> normalizar(Collection<Long> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de ids no puede ser null");
+        }
+        TreeSet<Long> ordenados = new TreeSet<>();
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("Id inválido: " + id);
+            }
+            ordenados.add(id);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(ordenados));
+    }
+
+    /**
+     * Ejecuta la plantilla (que contiene {@link #IDS}) una vez por tramo.
+     * @return total de filas afectadas
+     */
+    static int ejecutar(Connection c, String plantilla, List<Long> ids, int tamanioTramo) throws SQLException {
+        if (tamanioTramo <= 0) {
+            throw new IllegalArgumentException("El tamaño de tramo debe ser mayor a 0");
+        }
+        int afectadas = 0;
+        for (int desde = 0; desde < ids.size(); desde += tamanioTramo) {
+            List<Long> tramo = ids.subList(desde, Math.min(desde + tamanioTramo, ids.size()));
+            String sql = plantilla.replace(IDS, String.join(", ", Collections.nCopies(tramo.size(), "?")));
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (int i = 0; i < tramo.size(); i++) {
+                    ps.setLong(i + 1, tramo.get(i));
+                }
+                afectadas += ps.executeUpdate();
+            }
+        }
+        return afectadas;
+    }
+}
@@ -0,0 +1,54 @@
+package dao;
+
+import config.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura de las tablas catálogo de 02_catalogos.sql (especie, raza, veterinaria_cat).
+ * Los nombres pasan por DiccionarioValores: el catálogo y las entidades leídas
+ * comparten la misma instancia de cada valor.
+ *
+ * @author Astrid
+ */
+public class CatalogoDaoJdbc {
+
+    // Con LEFT JOIN una especie sin razas también aparece (raza NULL)
+    private static final String ESPECIES_Y_RAZAS
+            = "SELECT e.nombre, r.nombre FROM especie e LEFT JOIN raza r ON r.especie_id = e.id";
+
+    private static final String VETERINARIAS = "SELECT nombre FROM veterinaria_cat";
+
+    /** Pares {especie, raza}; raza es null en las especies sin razas cargadas. */
+    public List<String[]> leerEspeciesYRazas() {
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(ESPECIES_Y_RAZAS); ResultSet rs = ps.executeQuery()) {
+            List<String[]> pares = new ArrayList<>();
+            while (rs.next()) {
+                pares.add(new String[]{
+                    DiccionarioValores.ESPECIES.interno(rs.getString(1)),
+                    DiccionarioValores.RAZAS.interno(rs.getString(2))});
+            }
+            return pares;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al leer el catálogo de especies y razas", e);
+        }
+    }
+
+    public List<String> leerVeterinarias() {
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(VETERINARIAS); ResultSet rs = ps.executeQuery()) {
+            List<String> nombres = new ArrayList<>();
+            while (rs.next()) {
+                nombres.add(DiccionarioValores.VETERINARIAS.interno(rs.getString(1)));
+            }
+            return nombres;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al leer el catálogo de veterinarias", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package dao;
+
+/**
+ * La fila cambió de versión entre la lectura y el UPDATE: otra terminal la
+ * modificó, la dio de baja o la recuperó. Los cambios no se aplicaron; hay que
+ * volver a leer la entidad y repetir la edición sobre los datos actuales.
+ *
+ * @author Astrid
+ */
+public class ConflictoConcurrenciaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String tabla;
+    private final long id;
+    private final long versionLeida;
+
+    public ConflictoConcurrenciaException(String tabla, long id, long versionLeida) {
+        super("El registro " + id + " de " + tabla + " fue modificado desde otra terminal "
+                + "(versión leída " + versionLeida + "). Vuelva a buscarlo y repita los cambios.");
+        this.tabla = tabla;
+        this.id = id;
+        this.versionLeida = versionLeida;
+    }
+
+    public String getTabla() {
+        return tabla;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersionLeida() {
+        return versionLeida;
+    }
+}
@@ -0,0 +1,95 @@
+package dao;
+
+import config.DatabaseConnection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diccionario de valores repetidos de una columna de baja cardinalidad
+ * (especie, raza, veterinaria). Los mapeos de fila pasan cada String leído por
+ * {@link #interno(String)} y se quedan con la instancia compartida: una carga de
+ * 200k filas retiene una sola copia por valor distinto en lugar de una por fila.
+ *
+ * Se siembra con las tablas catálogo que lee CatalogoDaoJdbc (02_catalogos.sql)
+ * y aprende los valores que no estén en el catálogo hasta dao.diccionarioMaximo
+ * entradas; pasado ese tope los valores nuevos se devuelven sin compartir, así una
+ * columna con texto libre no hace crecer el diccionario sin límite.
+ *
+ * @author Astrid
+ */
+public final class DiccionarioValores {
+
+    // Tope de valores distintos por diccionario (0 = no se comparte nada)
+    private static final int MAXIMO = DatabaseConnection.getConfig().getDiccionarioMaximo();
+
+    public static final DiccionarioValores ESPECIES = new DiccionarioValores("especie");
+    public static final DiccionarioValores RAZAS = new DiccionarioValores("raza");
+    public static final DiccionarioValores VETERINARIAS = new DiccionarioValores("veterinaria");
+
+    private final String nombre;
+    private final ConcurrentHashMap<String, String> valores = new ConcurrentHashMap<>();
+    private final LongAdder compartidos = new LongAdder();
+    private final LongAdder bytesAhorrados = new LongAdder();
+
+    private DiccionarioValores(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /** La instancia compartida igual a {@code valor} (o el mismo valor si no se puede compartir). */
+    public String interno(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String compartido = valores.get(valor);
+        if (compartido != null) {
+            if (compartido != valor) {
+                compartidos.increment();
+                bytesAhorrados.add(tamanioEstimado(valor));
+            }
+            return compartido;
+        }
+        if (valores.size() >= MAXIMO) {
+            return valor;
+        }
+        compartido = valores.putIfAbsent(valor, valor);
+        return compartido != null ? interno(valor) : valor;
+    }
+
+    /** Resumen de los tres diccionarios, para la pantalla de estadísticas. */
+    public static String estadisticas() {
+        long total = ESPECIES.getBytesAhorrados() + RAZAS.getBytesAhorrados() + VETERINARIAS.getBytesAhorrados();
+        return ESPECIES + "\n" + RAZAS + "\n" + VETERINARIAS
+                + "\nDiccionarios: ~" + total / 1024 + " KB de heap sin duplicar";
+    }
+
+    public int getTamanio() {
+        return valores.size();
+    }
+
+    public long getCompartidos() {
+        return compartidos.sum();
+    }
+
+    public long getBytesAhorrados() {
+        return bytesAhorrados.sum();
+    }
+
+    // String (24 bytes con oops comprimidos) + su byte[] (16 de cabecera), alineados a 8.
+    // Con compact strings cada carácter Latin-1 ocupa 1 byte y el resto 2.
+    static long tamanioEstimado(String s) {
+        int bytesPorCaracter = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPorCaracter = 2;
+                break;
+            }
+        }
+        return 24 + ((16L + (long) s.length() * bytesPorCaracter + 7) & ~7L);
+    }
+
+    @Override
+    public String toString() {
+        return "DiccionarioValores{" + nombre + ", valores=" + getTamanio()
+                + ", compartidos=" + getCompartidos() + ", bytesAhorrados=" + getBytesAhorrados() + "}";
+    }
+}
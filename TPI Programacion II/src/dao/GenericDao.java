@@ -5,8 +5,10 @@
 package dao;
 
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  *
@@ -26,4 +28,48 @@ public interface GenericDao<T> {
 
     Optional<T> leer(long id, Connection c);
     List<T> leerTodos(Connection c);
+
+    /**
+     * Inserción masiva por lotes JDBC (addBatch/executeBatch) en la conexión dada.
+     * Los ids generados se asignan a cada entidad en el orden de la lista.
+     * El tamaño de cada lote se configura con dao.batchSize.
+     *
+     * @return la misma lista, con los ids asignados
+     */
+    List<T> crearTodos(List<T> entidades, Connection c);
+
+    /**
+     * Baja lógica masiva en la conexión dada, en tramos de {@code WHERE id IN (...)}
+     * (tamaño dao.batchSize). Ids repetidos o ya eliminados no cuentan.
+     *
+     * @return cantidad de entidades dadas de baja
+     */
+    int eliminarTodos(Collection<Long> ids, Connection c);
+
+    /**
+     * Contrapartida de eliminarTodos: deshace la baja lógica en la conexión dada,
+     * en los mismos tramos. Ids repetidos o que no estaban eliminados no cuentan.
+     *
+     * @return cantidad de entidades recuperadas
+     */
+    int recuperarTodos(Collection<Long> ids, Connection c);
+
+    /**
+     * Recorrido en streaming: cada fila se mapea y se entrega al consumidor
+     * sin acumularse en memoria (cursor del servidor con fetch size).
+     * El ResultSet (y la conexión, en la versión sin Connection) se cierran
+     * al terminar, aunque el consumidor lance una excepción.
+     *
+     * @return cantidad de filas recorridas
+     */
+    long recorrerTodos(Consumer<? super T> consumidor);
+    long recorrerTodos(Consumer<? super T> consumidor, Connection c);
+
+    /**
+     * Paginación por clave: devuelve hasta {@code tamanio} entidades activas
+     * con id mayor a {@code despuesDeId}, ordenadas por id.
+     * Para la primera página se pasa 0.
+     */
+    Pagina<T> leerPagina(long despuesDeId, int tamanio);
+    Pagina<T> leerPagina(long despuesDeId, int tamanio, Connection c);
 }
@@ -0,0 +1,96 @@
+package dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin locks (log-lineal, estilo HdrHistogram simplificado).
+ *
+ * Cada potencia de 2 de nanosegundos se divide en 8 sub-buckets lineales,
+ * así el error relativo de un percentil es como mucho 12,5 %.
+ * Registrar es un incremento atómico sobre un AtomicLongArray: sin locks
+ * ni asignaciones, apto para llamarse en cada operación del DAO.
+ */
+public final class HistogramaLatencia {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int BITS_SUB = 3;
+    // 64 potencias de 2, menos las que caen en el tramo lineal inicial
+    private static final int BUCKETS = (64 - BITS_SUB + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder sumaNanos = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Long::max, 0);
+
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        buckets.incrementAndGet(indice(v));
+        cantidad.increment();
+        sumaNanos.add(v);
+        maximo.accumulate(v);
+    }
+
+    static int indice(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponente - BITS_SUB)) & (SUB_BUCKETS - 1);
+        return (exponente - BITS_SUB + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Mayor valor que cae en el bucket (se reporta la cota superior)
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_BUCKETS) {
+            return indice;
+        }
+        int exponente = indice / SUB_BUCKETS + BITS_SUB - 1;
+        long sub = indice % SUB_BUCKETS;
+        long base = (SUB_BUCKETS + sub) << (exponente - BITS_SUB);
+        return base + (1L << (exponente - BITS_SUB)) - 1;
+    }
+
+    /**
+     * Percentil aproximado en nanosegundos.
+     * @param p percentil entre 0 y 100
+     */
+    public long percentil(double p) {
+        long total = cantidad.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * p / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            acumulado += buckets.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximoNanos() {
+        return maximo.get();
+    }
+
+    public double getPromedioNanos() {
+        long total = cantidad.sum();
+        return total == 0 ? 0 : (double) sumaNanos.sum() / total;
+    }
+
+    /** Formatea nanos en la unidad más legible (µs o ms). */
+    static String formatear(double nanos) {
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            return String.format("%.1fµs", nanos / 1_000.0);
+        }
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
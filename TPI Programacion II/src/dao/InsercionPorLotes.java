@@ -0,0 +1,59 @@
+package dao;
+
+import entities.Base;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Inserción JDBC por lotes compartida por los DAOs.
+ *
+ * Cada lote se envía con addBatch/executeBatch (con rewriteBatchedStatements
+ * el driver lo convierte en un único INSERT multi-fila) y los ids generados
+ * se leen de getGeneratedKeys() y se asignan en el mismo orden de la lista; desde
+ * ahí las entidades registran sus cambios como si se hubieran leído de la BD.
+ */
+final class InsercionPorLotes {
+
+    /** Carga los parámetros del INSERT para una entidad. */
+    @FunctionalInterface
+    interface CargadorParametros<T> {
+        void cargar(PreparedStatement ps, T entidad) throws SQLException;
+    }
+
+    private InsercionPorLotes() {
+    }
+
+    static <T extends Base> void insertar(Connection c, String sql, List<T> entidades,
+                                          int tamanioLote, CargadorParametros<T> cargador) throws SQLException {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int desde = 0; desde < entidades.size(); desde += tamanioLote) {
+                List<T> lote = entidades.subList(desde, Math.min(desde + tamanioLote, entidades.size()));
+                for (T entidad : lote) {
+                    cargador.cargar(ps, entidad);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                int i = 0;
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next() && i < lote.size()) {
+                        T entidad = lote.get(i++);
+                        entidad.setId(rs.getLong(1));
+                        entidad.marcarSinModificaciones();
+                    }
+                }
+                if (i != lote.size()) {
+                    throw new SQLException("Se esperaban " + lote.size()
+                            + " ids generados y se recibieron " + i);
+                }
+            }
+        }
+    }
+}
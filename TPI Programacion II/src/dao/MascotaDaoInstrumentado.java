@@ -0,0 +1,197 @@
+package dao;
+
+import entities.Mascota;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * MascotaDaoJdbc instrumentado: cada método público se mide en MetricasDao
+ * (llamadas, errores, filas y latencia). Las variantes con Connection
+ * se registran con el sufijo [tx].
+ */
+public class MascotaDaoInstrumentado extends MascotaDaoJdbc {
+
+    private static final String P = "mascota.";
+
+    private final MetricasDao metricas;
+
+    public MascotaDaoInstrumentado(MetricasDao metricas) {
+        if (metricas == null) {
+            throw new IllegalArgumentException("MetricasDao no puede ser null");
+        }
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Mascota crear(Mascota e) {
+        return metricas.medir(P + "crear", () -> super.crear(e), r -> 1);
+    }
+
+    @Override
+    public Mascota crear(Mascota e, Connection c) {
+        return metricas.medir(P + "crear[tx]", () -> super.crear(e, c), r -> 1);
+    }
+
+    @Override
+    public List<Mascota> crearTodos(List<Mascota> lista, Connection c) {
+        return metricas.medir(P + "crearTodos[tx]", () -> super.crearTodos(lista, c), List::size);
+    }
+
+    @Override
+    public Optional<Mascota> leer(long id) {
+        return metricas.medir(P + "leer", () -> super.leer(id), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<Mascota> leer(long id, Connection c) {
+        return metricas.medir(P + "leer[tx]", () -> super.leer(id, c), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Mascota> leerTodos() {
+        return metricas.medir(P + "leerTodos", () -> super.leerTodos(), List::size);
+    }
+
+    @Override
+    public List<Mascota> leerTodos(Connection c) {
+        return metricas.medir(P + "leerTodos[tx]", () -> super.leerTodos(c), List::size);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor) {
+        return metricas.medir(P + "recorrerTodos", () -> super.recorrerTodos(consumidor), r -> r);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, Connection c) {
+        return metricas.medir(P + "recorrerTodos[tx]", () -> super.recorrerTodos(consumidor, c), r -> r);
+    }
+
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio) {
+        return metricas.medir(P + "leerPagina", () -> super.leerPagina(despuesDeId, tamanio),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, Connection c) {
+        return metricas.medir(P + "leerPagina[tx]", () -> super.leerPagina(despuesDeId, tamanio, c),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public void actualizar(Mascota e) {
+        metricas.medir(P + "actualizar", () -> super.actualizar(e));
+    }
+
+    @Override
+    public void actualizar(Mascota e, Connection c) {
+        metricas.medir(P + "actualizar[tx]", () -> super.actualizar(e, c));
+    }
+
+    @Override
+    public void eliminar(long id) {
+        metricas.medir(P + "eliminar", () -> super.eliminar(id));
+    }
+
+    @Override
+    public void eliminar(long id, Connection c) {
+        metricas.medir(P + "eliminar[tx]", () -> super.eliminar(id, c));
+    }
+
+    @Override
+    public void recuperar(long id) {
+        metricas.medir(P + "recuperar", () -> super.recuperar(id));
+    }
+
+    @Override
+    public void recuperar(long id, Connection c) {
+        metricas.medir(P + "recuperar[tx]", () -> super.recuperar(id, c));
+    }
+
+    @Override
+    public int eliminarTodos(Collection<Long> ids, Connection c) {
+        return metricas.medir(P + "eliminarTodos[tx]", () -> super.eliminarTodos(ids, c), r -> r);
+    }
+
+    @Override
+    public int recuperarTodos(Collection<Long> ids, Connection c) {
+        return metricas.medir(P + "recuperarTodos[tx]", () -> super.recuperarTodos(ids, c), r -> r);
+    }
+
+    @Override
+    public Pagina<Mascota> buscarPorDuenio(String prefijo, String despuesDeDuenio, long despuesDeId, int tamanio) {
+        return metricas.medir(P + "buscarPorDuenio",
+                () -> super.buscarPorDuenio(prefijo, despuesDeDuenio, despuesDeId, tamanio),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public Pagina<Mascota> buscarPorDuenio(String prefijo, String despuesDeDuenio, long despuesDeId,
+                                           int tamanio, Connection c) {
+        return metricas.medir(P + "buscarPorDuenio[tx]",
+                () -> super.buscarPorDuenio(prefijo, despuesDeDuenio, despuesDeId, tamanio, c),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public List<Mascota> leerPorIds(Collection<Long> ids, Connection c) {
+        return metricas.medir(P + "leerPorIds[tx]", () -> super.leerPorIds(ids, c), List::size);
+    }
+
+    @Override
+    public long idMaximo() {
+        return metricas.medir(P + "idMaximo", () -> super.idMaximo(), r -> 1);
+    }
+
+    @Override
+    public long recorrerDuenios(long desdeId, long hastaId, ObjLongConsumer<String> consumidor) {
+        return metricas.medir(P + "recorrerDuenios", () -> super.recorrerDuenios(desdeId, hastaId, consumidor),
+                r -> r);
+    }
+
+    // Lecturas con plan de carga: el plan va en el nombre, ej. mascota.leer[SOLO_ID,tx]
+
+    @Override
+    public Optional<Mascota> leer(long id, PlanCarga plan) {
+        return metricas.medir(P + "leer[" + plan + "]", () -> super.leer(id, plan), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<Mascota> leer(long id, PlanCarga plan, Connection c) {
+        return metricas.medir(P + "leer[" + plan + ",tx]", () -> super.leer(id, plan, c),
+                r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Mascota> leerPorIds(Collection<Long> ids, PlanCarga plan, Connection c) {
+        return metricas.medir(P + "leerPorIds[" + plan + ",tx]", () -> super.leerPorIds(ids, plan, c), List::size);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, PlanCarga plan) {
+        return metricas.medir(P + "recorrerTodos[" + plan + "]", () -> super.recorrerTodos(consumidor, plan), r -> r);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, PlanCarga plan, Connection c) {
+        return metricas.medir(P + "recorrerTodos[" + plan + ",tx]",
+                () -> super.recorrerTodos(consumidor, plan, c), r -> r);
+    }
+
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, PlanCarga plan) {
+        return metricas.medir(P + "leerPagina[" + plan + "]", () -> super.leerPagina(despuesDeId, tamanio, plan),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, PlanCarga plan, Connection c) {
+        return metricas.medir(P + "leerPagina[" + plan + ",tx]",
+                () -> super.leerPagina(despuesDeId, tamanio, plan, c), r -> r.getElementos().size());
+    }
+}
@@ -5,10 +5,13 @@
 package dao;
 
 import config.DatabaseConnection;
+import config.TransactionManager;
 import entities.Mascota;
 import entities.Microchip;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  *
@@ -16,12 +19,57 @@ import java.util.*;
  */
 public class MascotaDaoJdbc implements GenericDao<Mascota> {
 
-    private final MicrochipDaoJdbc microchipDao = new MicrochipDaoJdbc();
+    // Filas por viaje del cursor en los recorridos en streaming
+    private static final int FETCH_SIZE = DatabaseConnection.getConfig().getFetchSize();
+
+    // Filas por executeBatch() en crearTodos
+    private static final int BATCH_SIZE = DatabaseConnection.getConfig().getBatchSize();
+
+    private static final String INSERT
+            = "INSERT INTO mascota (nombre, especie, raza, fecha_nacimiento, duenio, eliminado, microchip_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Mascota + su microchip activo en una sola consulta (el chip puede no existir).
+    // Todas las lecturas usan esta consulta y mapearMascota(): sin consultas N+1.
+    private static final String SELECT_CON_MICROCHIP
+            = "SELECT m.id, m.nombre, m.especie, m.raza, m.fecha_nacimiento, "
+            + "       m.duenio, m.eliminado, m.microchip_id, m.version, "
+            + "       mc.id              AS mc_id, "
+            + "       mc.eliminado       AS mc_eliminado, "
+            + "       mc.version         AS mc_version, "
+            + "       mc.codigo          AS mc_codigo, "
+            + "       mc.fecha_implantacion AS mc_fecha_implantacion, "
+            + "       mc.veterinaria     AS mc_veterinaria, "
+            + "       mc.observaciones   AS mc_observaciones "
+            + "FROM mascota m "
+            + "LEFT JOIN microchip mc ON mc.id = m.microchip_id AND mc.eliminado = FALSE ";
+
+    // Sin el JOIN, para los planes DIFERIDO y SOLO_ID: del chip solo se trae microchip_id
+    private static final String SELECT_SIN_MICROCHIP
+            = "SELECT m.id, m.nombre, m.especie, m.raza, m.fecha_nacimiento, "
+            + "       m.duenio, m.eliminado, m.microchip_id, m.version "
+            + "FROM mascota m ";
+
+    // Columnas que puede escribir actualizar(), en el orden en que entran al SET
+    private static final List<String> COLUMNAS_ACTUALIZABLES = List.of(
+            "nombre", "especie", "raza", "fecha_nacimiento", "duenio", "eliminado", "microchip_id");
+
+    // Baja lógica de la mascota y de su microchip en un único UPDATE multi-tabla.
+    // Con LEFT JOIN una mascota sin chip también se da de baja. Las bajas y
+    // recuperaciones también incrementan version: quien tenga la fila abierta recibe un conflicto.
+    private static final String ELIMINAR_CON_MICROCHIP
+            = "UPDATE mascota m "
+            + "LEFT JOIN microchip mc ON mc.id = m.microchip_id "
+            + "SET m.eliminado = TRUE, m.version = m.version + 1, "
+            + "    mc.eliminado = TRUE, mc.version = mc.version + 1 "
+            + "WHERE m.id = ? AND m.eliminado = FALSE";
+
+    // Lecturas del plan DIFERIDO: cada una con su propia conexión, al primer getMicrochip()
+    private final MicrochipDaoJdbc microchips = new MicrochipDaoJdbc();
 
     @Override
     public Mascota crear(Mascota m) {
         try (Connection c = DatabaseConnection.getConnection()) {
-            return crear(m, c);
+            return insertarUna(m, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al crear mascota", e);
         }
@@ -29,15 +77,12 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
 
     @Override
     public Mascota crear(Mascota m, Connection c) {
-        String sql = "INSERT INTO mascota (nombre, especie, raza, fecha_nacimiento, duenio, eliminado, microchip_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, m.getNombre());
-            ps.setString(2, m.getEspecie());
-            ps.setString(3, m.getRaza());
-            ps.setDate(4, java.sql.Date.valueOf(m.getFechaNacimiento()));
-            ps.setString(5, m.getDuenio());
-            ps.setBoolean(6, m.isEliminado());
-            ps.setLong(7, m.getMicrochip().getId());
+        return insertarUna(m, c);
+    }
+
+    private Mascota insertarUna(Mascota m, Connection c) {
+        try (PreparedStatement ps = c.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            cargarInsert(ps, m);
             ps.executeUpdate();
 
             // Obtener el ID generado
@@ -46,6 +91,7 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
                     m.setId(rs.getLong(1));
                 }
             }
+            m.marcarSinModificaciones();
             return m;
         } catch (SQLException e) {
             throw new RuntimeException("Error al insertar mascota", e);
@@ -53,101 +99,87 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
     }
 
     @Override
-    public Optional<Mascota> leer(long id) {
-        String sql = "SELECT m.*, m.microchip_id FROM mascota m WHERE m.id = ? AND eliminado = FALSE";
-        try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    Mascota m = new Mascota();
-                    m.setId(rs.getLong("id"));
-                    m.setNombre(rs.getString("nombre"));
-                    m.setEspecie(rs.getString("especie"));
-                    m.setRaza(rs.getString("raza"));
-                    m.setFechaNacimiento(rs.getDate("fecha_nacimiento").toLocalDate());
-                    m.setDuenio(rs.getString("duenio"));
-                    m.setEliminado(rs.getBoolean("eliminado"));
-                    Long microchipId = rs.getLong("microchip_id");
-                    if (microchipId != 0) {
-                        microchipDao.leer(microchipId).ifPresent(m::setMicrochip);
-                    }
-                    return Optional.of(m);
+    public List<Mascota> crearTodos(List<Mascota> mascotas, Connection c) {
+        if (mascotas == null) {
+            throw new IllegalArgumentException("La lista de mascotas no puede ser null");
+        }
+        for (Mascota m : mascotas) {
+            // El microchip se inserta antes (MascotaService); acá solo se enlaza su id
+            if (m.getMicrochip() != null && m.getMicrochip().getId() == null) {
+                throw new IllegalArgumentException("El microchip de la mascota " + m.getNombre()
+                        + " todavía no fue insertado");
+            }
+        }
+        try {
+            InsercionPorLotes.insertar(c, INSERT, mascotas, BATCH_SIZE, this::cargarInsert);
+            return mascotas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al insertar mascotas por lotes", e);
+        }
+    }
+
+    // Parámetros del INSERT, compartidos por crear y crearTodos
+    private void cargarInsert(PreparedStatement ps, Mascota m) throws SQLException {
+        ps.setString(1, m.getNombre());
+        ps.setString(2, m.getEspecie());
+        ps.setString(3, m.getRaza());
+        ps.setDate(4, m.getFechaNacimiento() != null ? java.sql.Date.valueOf(m.getFechaNacimiento()) : null);
+        ps.setString(5, m.getDuenio());
+        ps.setBoolean(6, m.isEliminado());
+        // Mascota sin microchip: microchip_id NULL (la columna lo admite)
+        if (m.getMicrochip() != null) {
+            ps.setLong(7, m.getMicrochip().getId());
+        } else {
+            ps.setNull(7, Types.BIGINT);
+        }
+    }
+
+    // Valor de una columna de COLUMNAS_ACTUALIZABLES para el UPDATE parcial
+    private void cargarColumna(PreparedStatement ps, int i, String columna, Mascota m) throws SQLException {
+        switch (columna) {
+            case "nombre" -> ps.setString(i, m.getNombre());
+            case "especie" -> ps.setString(i, m.getEspecie());
+            case "raza" -> ps.setString(i, m.getRaza());
+            case "fecha_nacimiento" -> ps.setDate(i, m.getFechaNacimiento() != null
+                    ? java.sql.Date.valueOf(m.getFechaNacimiento()) : null);
+            case "duenio" -> ps.setString(i, m.getDuenio());
+            case "eliminado" -> ps.setBoolean(i, m.isEliminado());
+            case "microchip_id" -> {
+                if (m.getMicrochipId() != null) {
+                    ps.setLong(i, m.getMicrochipId());
+                } else {
+                    ps.setNull(i, Types.BIGINT);
                 }
             }
+            default -> throw new IllegalArgumentException("Columna no actualizable: " + columna);
+        }
+    }
+
+    @Override
+    public Optional<Mascota> leer(long id) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return leerUna(id, PlanCarga.COMPLETO, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al leer mascota", e);
         }
-        return Optional.empty();
     }
 
     @Override
     public List<Mascota> leerTodos() {
-        List<Mascota> lista = new ArrayList<>();
-
-        String sql
-                = "SELECT m.id, m.nombre, m.especie, m.raza, m.fecha_nacimiento, "
-                + "       m.duenio, m.eliminado, m.microchip_id, "
-                + "       mc.id              AS mc_id, "
-                + "       mc.eliminado       AS mc_eliminado, "
-                + "       mc.codigo          AS mc_codigo, "
-                + "       mc.fecha_implantacion AS mc_fecha_implantacion, "
-                + "       mc.veterinaria     AS mc_veterinaria, "
-                + "       mc.observaciones   AS mc_observaciones "
-                + "FROM mascota m "
-                + "LEFT JOIN microchip mc ON mc.id = m.microchip_id "
-                + "WHERE m.eliminado = FALSE";
-
-        try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                Mascota m = new Mascota();
-                m.setId(rs.getLong("id"));
-                m.setNombre(rs.getString("nombre"));
-                m.setEspecie(rs.getString("especie"));
-                m.setRaza(rs.getString("raza"));
-
-                m.setFechaNacimiento(rs.getDate("fecha_nacimiento").toLocalDate());
-
-                m.setDuenio(rs.getString("duenio"));
-                m.setEliminado(rs.getBoolean("eliminado"));
-
-                // Microchip (puede ser null)
-                long mcId = rs.getLong("mc_id");
-                if (!rs.wasNull()) {
-                    Microchip mc = new Microchip();
-                    mc.setId(mcId);
-                    mc.setEliminado(rs.getBoolean("mc_eliminado"));
-                    mc.setCodigo(rs.getString("mc_codigo"));
-                    mc.setFechaImplantacion(rs.getDate("mc_fecha_implantacion").toLocalDate());
-
-                    mc.setVeterinaria(rs.getString("mc_veterinaria"));
-                    mc.setObservaciones(rs.getString("mc_observaciones"));
-
-                    m.setMicrochip(mc);
-                }
-
-                lista.add(m);
-            }
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return listar(c);
         } catch (SQLException e) {
-            e.printStackTrace();
             throw new RuntimeException("Error al listar mascotas", e);
         }
-
-        return lista;
     }
 
     @Override
     public void actualizar(Mascota m) {
-        String sql = "UPDATE mascota SET nombre=?, especie=?, raza=?, fecha_nacimiento=?, duenio=?, eliminado=? WHERE id=?";
-        try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, m.getNombre());
-            ps.setString(2, m.getEspecie());
-            ps.setString(3, m.getRaza());
-            ps.setDate(4, java.sql.Date.valueOf(m.getFechaNacimiento()));
-            ps.setString(5, m.getDuenio());
-            ps.setBoolean(6, m.isEliminado());
-            ps.setLong(7, m.getId());
-            ps.executeUpdate();
+        if (!m.hayModificaciones()) {
+            return; // sin cambios: ni conexión ni sentencia
+        }
+        try (Connection c = DatabaseConnection.getConnection()) {
+            actualizarCambios(m, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar mascota", e);
         }
@@ -156,72 +188,43 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
     @Override
     public void eliminar(long id) {
         try (Connection c = DatabaseConnection.getConnection()) {
-            eliminar(id, c);
+            eliminarUna(id, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al eliminar mascota", e);
         }
     }
 
+    /** Recupera la mascota y su microchip (dos UPDATE en una transacción propia). */
     public void recuperar(long id) {
-        String sql = "UPDATE mascota SET eliminado = FALSE WHERE id=?";
-        try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setLong(1, id);
-            ps.executeUpdate();
-
-        } catch (SQLException e) {
+        try (Connection c = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(c)) {
+            tx.ejecutar(cc -> recuperarConMicrochips(List.of(id), cc));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
             throw new RuntimeException("Error al recuperar mascota", e);
         }
     }
 
-    // Métodos con Connection
+    // Métodos con Connection. Las variantes sin Connection no los llaman: usan los
+    // helpers privados, así una subclase que los redefine (MascotaDaoInstrumentado)
+    // no mide dos veces la misma operación.
     @Override
     public Optional<Mascota> leer(long id, Connection c) {
-        String sql = "SELECT * FROM mascota WHERE id = ? AND eliminado = FALSE";
-        try (PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setLong(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    Mascota m = new Mascota();
-                    m.setId(rs.getLong("id"));
-                    m.setNombre(rs.getString("nombre"));
-                    m.setEspecie(rs.getString("especie"));
-                    m.setRaza(rs.getString("raza"));
-                    m.setFechaNacimiento(rs.getDate("fecha_nacimiento").toLocalDate());
-                    m.setDuenio(rs.getString("duenio"));
-                    m.setEliminado(rs.getBoolean("eliminado"));
-                    Long microchipId = rs.getLong("microchip_id");
-                    if (microchipId != 0) {
-                        microchipDao.leer(microchipId).ifPresent(m::setMicrochip);
-                    }
-                    return Optional.of(m);
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error al leer mascota (transaccional)", e);
-        }
-        return Optional.empty();
+        return leerUna(id, PlanCarga.COMPLETO, c);
     }
 
     @Override
     public List<Mascota> leerTodos(Connection c) {
+        return listar(c);
+    }
+
+    private List<Mascota> listar(Connection c) {
         List<Mascota> lista = new ArrayList<>();
-        String sql = "SELECT * FROM mascota WHERE eliminado = FALSE";
+        String sql = SELECT_CON_MICROCHIP + "WHERE m.eliminado = FALSE";
         try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                Mascota m = new Mascota();
-                m.setId(rs.getLong("id"));
-                m.setNombre(rs.getString("nombre"));
-                m.setEspecie(rs.getString("especie"));
-                m.setRaza(rs.getString("raza"));
-                m.setFechaNacimiento(rs.getDate("fecha_nacimiento").toLocalDate());
-                m.setDuenio(rs.getString("duenio"));
-                m.setEliminado(rs.getBoolean("eliminado"));
-                Long microchipId = rs.getLong("microchip_id");
-                if (microchipId != 0) {
-                    microchipDao.leer(microchipId).ifPresent(m::setMicrochip);
-                }
-                lista.add(m);
+                lista.add(mapearMascota(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Error al listar mascotas (transaccional)", e);
@@ -231,19 +234,12 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
 
     @Override
     public void eliminar(long id, Connection c) {
-        // Primero obtenemos la mascota para ver si tiene microchip
-        Optional<Mascota> opt = leer(id, c);
-        if (opt.isPresent()) {
-            Mascota m = opt.get();
-            // Si tiene microchip, eliminarlo también
-            if (m.getMicrochip() != null) {
-                microchipDao.eliminar(m.getMicrochip().getId(), c);
-            }
-        }
+        eliminarUna(id, c);
+    }
 
-        // Ahora eliminamos la mascota
-        String sql = "UPDATE mascota SET eliminado = TRUE WHERE id=?";
-        try (PreparedStatement ps = c.prepareStatement(sql)) {
+    private void eliminarUna(long id, Connection c) {
+        // Mascota y microchip en una sola sentencia, dentro de la transacción de quien llama
+        try (PreparedStatement ps = c.prepareStatement(ELIMINAR_CON_MICROCHIP)) {
             ps.setLong(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -253,29 +249,384 @@ public class MascotaDaoJdbc implements GenericDao<Mascota> {
 
     @Override
     public void actualizar(Mascota m, Connection c) {
-        String sql = "UPDATE mascota SET nombre=?, especie=?, raza=?, fecha_nacimiento=?, duenio=?, eliminado=? WHERE id=?";
+        actualizarCambios(m, c);
+    }
 
-        try (PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, m.getNombre());
-            ps.setString(2, m.getEspecie());
-            ps.setString(3, m.getRaza());
-            ps.setDate(4, java.sql.Date.valueOf(m.getFechaNacimiento()));
-            ps.setString(5, m.getDuenio());
-            ps.setBoolean(6, m.isEliminado());
-            ps.setLong(7, m.getId());
-            ps.executeUpdate();
+    private void actualizarCambios(Mascota m, Connection c) {
+        // Solo las columnas modificadas; microchip_id incluido (antes no se escribía)
+        try {
+            ActualizacionParcial.ejecutar(c, "mascota", COLUMNAS_ACTUALIZABLES, m, this::cargarColumna);
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar mascota (transaccional)", e);
         }
     }
 
+    /** Recupera la mascota y su microchip, igual que recuperarTodos con un solo id. */
     public void recuperar(long id, Connection c) {
-        String sql = "UPDATE mascota SET eliminado = FALSE WHERE id=?";
+        recuperarConMicrochips(List.of(id), c);
+    }
+
+    /** Mascotas activas con los ids dados, consultadas en tramos de dao.batchSize. */
+    public List<Mascota> leerPorIds(Collection<Long> ids, Connection c) {
+        return buscarPorIds(ids, PlanCarga.COMPLETO, c);
+    }
+
+    public List<Mascota> leerPorIds(Collection<Long> ids, PlanCarga plan, Connection c) {
+        return buscarPorIds(ids, plan, c);
+    }
+
+    private List<Mascota> buscarPorIds(Collection<Long> ids, PlanCarga plan, Connection c) {
+        List<Long> orden = ActualizacionPorIds.normalizar(ids);
+        List<Mascota> lista = new ArrayList<>(orden.size());
+        try {
+            for (int desde = 0; desde < orden.size(); desde += BATCH_SIZE) {
+                List<Long> tramo = orden.subList(desde, Math.min(desde + BATCH_SIZE, orden.size()));
+                String sql = select(plan) + "WHERE m.eliminado = FALSE AND m.id IN ("
+                        + String.join(", ", Collections.nCopies(tramo.size(), "?")) + ") ORDER BY m.id";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < tramo.size(); i++) {
+                        ps.setLong(i + 1, tramo.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            lista.add(mapearMascota(rs, plan));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al leer mascotas por id (transaccional)", e);
+        }
+        return lista;
+    }
+
+    // Búsqueda por dueño
+
+    public Pagina<Mascota> buscarPorDuenio(String prefijo, String despuesDeDuenio, long despuesDeId, int tamanio) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return buscarDuenio(prefijo, despuesDeDuenio, despuesDeId, tamanio, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar mascotas por dueño", e);
+        }
+    }
+
+    /**
+     * Mascotas activas cuyo dueño empieza con {@code prefijo}, ordenadas por (dueño, id).
+     * El cursor es el par (dueño, id) de la última mascota de la página anterior;
+     * para la primera página se pasa {@code despuesDeDuenio} null.
+     *
+     * Con el índice idx_mascota_eliminado_duenio (eliminado, duenio, id) el filtro
+     * LIKE 'prefijo%' y el cursor son un único recorrido por rango que ya sale en el
+     * orden del ORDER BY, así cada página lee solo sus filas. La collation
+     * utf8mb4_unicode_ci hace la comparación sin distinguir mayúsculas (ni acentos);
+     * dueños iguales para la collation se desempatan por id.
+     */
+    public Pagina<Mascota> buscarPorDuenio(String prefijo, String despuesDeDuenio, long despuesDeId,
+                                           int tamanio, Connection c) {
+        return buscarDuenio(prefijo, despuesDeDuenio, despuesDeId, tamanio, c);
+    }
+
+    private Pagina<Mascota> buscarDuenio(String prefijo, String despuesDeDuenio, long despuesDeId,
+                                         int tamanio, Connection c) {
+        Pagina.validarTamanio(tamanio);
+        String sql = SELECT_CON_MICROCHIP + "WHERE m.eliminado = FALSE AND m.duenio LIKE ? ESCAPE '!' "
+                + (despuesDeDuenio != null ? "AND (m.duenio > ? OR (m.duenio = ? AND m.id > ?)) " : "")
+                + "ORDER BY m.duenio, m.id LIMIT ?";
+        List<Mascota> lista = new ArrayList<>(tamanio + 1);
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            ps.setString(i++, escaparLike(prefijo) + "%");
+            if (despuesDeDuenio != null) {
+                ps.setString(i++, despuesDeDuenio);
+                ps.setString(i++, despuesDeDuenio);
+                ps.setLong(i++, despuesDeId);
+            }
+            ps.setInt(i, tamanio + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearMascota(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar mascotas por dueño (transaccional)", e);
+        }
+        return Pagina.desdeFilas(lista, tamanio);
+    }
+
+    /** Mayor id de la tabla (0 si está vacía), para partir recorridos en tramos. */
+    public long idMaximo() {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM mascota";
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al consultar el id máximo de mascota", e);
+        }
+    }
+
+    /**
+     * Recorre en streaming los pares (dueño, id) de las mascotas activas con id en
+     * [desdeId, hastaId], con su propia conexión: varios hilos pueden recorrer tramos
+     * distintos a la vez.
+     *
+     * @return cantidad de filas recorridas
+     */
+    public long recorrerDuenios(long desdeId, long hastaId, ObjLongConsumer<String> consumidor) {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        String sql = "SELECT id, duenio FROM mascota WHERE eliminado = FALSE AND id BETWEEN ? AND ?";
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setLong(1, desdeId);
+            ps.setLong(2, hastaId);
+            ps.setFetchSize(FETCH_SIZE);
+            long filas = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(rs.getString(2), rs.getLong(1));
+                    filas++;
+                }
+            }
+            return filas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer dueños", e);
+        }
+    }
+
+    // Los comodines que escriba el usuario se buscan literalmente
+    private static String escaparLike(String texto) {
+        return texto.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // Bajas y recuperaciones masivas
+
+    /**
+     * Baja lógica de las mascotas y de sus microchips, por tramos de ids.
+     * Primero los chips (mientras las mascotas siguen activas) y después las mascotas.
+     *
+     * @return cantidad de mascotas dadas de baja
+     */
+    @Override
+    public int eliminarTodos(Collection<Long> ids, Connection c) {
+        List<Long> orden = ActualizacionPorIds.normalizar(ids);
+        try {
+            ActualizacionPorIds.ejecutar(c, "UPDATE microchip SET eliminado = TRUE, version = version + 1 "
+                    + "WHERE eliminado = FALSE AND id IN ("
+                    + "SELECT microchip_id FROM mascota WHERE eliminado = FALSE AND id IN ("
+                    + ActualizacionPorIds.IDS + "))", orden, BATCH_SIZE);
+            return ActualizacionPorIds.ejecutar(c, "UPDATE mascota SET eliminado = TRUE, version = version + 1 "
+                    + "WHERE eliminado = FALSE AND id IN (" + ActualizacionPorIds.IDS + ")", orden, BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al eliminar mascotas (transaccional)", e);
+        }
+    }
+
+    /**
+     * Recupera las mascotas y, como contrapartida de eliminarTodos, también sus microchips.
+     *
+     * @return cantidad de mascotas recuperadas
+     */
+    @Override
+    public int recuperarTodos(Collection<Long> ids, Connection c) {
+        return recuperarConMicrochips(ids, c);
+    }
+
+    private int recuperarConMicrochips(Collection<Long> ids, Connection c) {
+        List<Long> orden = ActualizacionPorIds.normalizar(ids);
+        try {
+            ActualizacionPorIds.ejecutar(c, "UPDATE microchip SET eliminado = FALSE, version = version + 1 "
+                    + "WHERE eliminado = TRUE AND id IN ("
+                    + "SELECT microchip_id FROM mascota WHERE eliminado = TRUE AND id IN ("
+                    + ActualizacionPorIds.IDS + "))", orden, BATCH_SIZE);
+            return ActualizacionPorIds.ejecutar(c, "UPDATE mascota SET eliminado = FALSE, version = version + 1 "
+                    + "WHERE eliminado = TRUE AND id IN (" + ActualizacionPorIds.IDS + ")", orden, BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recuperar mascotas (transaccional)", e);
+        }
+    }
+
+    // Recorrido en streaming
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return recorrer(consumidor, PlanCarga.COMPLETO, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer mascotas", e);
+        }
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, Connection c) {
+        return recorrer(consumidor, PlanCarga.COMPLETO, c);
+    }
+
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, PlanCarga plan) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return recorrer(consumidor, plan, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer mascotas", e);
+        }
+    }
+
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, PlanCarga plan, Connection c) {
+        return recorrer(consumidor, plan, c);
+    }
+
+    private long recorrer(Consumer<? super Mascota> consumidor, PlanCarga plan, Connection c) {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        String sql = select(plan) + "WHERE m.eliminado = FALSE ORDER BY m.id";
+        // Forward-only + fetch size: con useCursorFetch el driver trae FETCH_SIZE filas por viaje
+        try (PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            long filas = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapearMascota(rs, plan));
+                    filas++;
+                }
+            }
+            return filas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer mascotas (transaccional)", e);
+        }
+    }
+
+    // Paginación por clave
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return paginar(despuesDeId, tamanio, PlanCarga.COMPLETO, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al paginar mascotas", e);
+        }
+    }
+
+    @Override
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, Connection c) {
+        return paginar(despuesDeId, tamanio, PlanCarga.COMPLETO, c);
+    }
+
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, PlanCarga plan) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return paginar(despuesDeId, tamanio, plan, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al paginar mascotas", e);
+        }
+    }
+
+    public Pagina<Mascota> leerPagina(long despuesDeId, int tamanio, PlanCarga plan, Connection c) {
+        return paginar(despuesDeId, tamanio, plan, c);
+    }
+
+    private Pagina<Mascota> paginar(long despuesDeId, int tamanio, PlanCarga plan, Connection c) {
+        Pagina.validarTamanio(tamanio);
+        // Se pide una fila de más para saber si existe una página siguiente
+        String sql = select(plan) + "WHERE m.id > ? AND m.eliminado = FALSE ORDER BY m.id LIMIT ?";
+        List<Mascota> lista = new ArrayList<>(tamanio + 1);
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, despuesDeId);
+            ps.setInt(2, tamanio + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearMascota(rs, plan));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al paginar mascotas (transaccional)", e);
+        }
+        return Pagina.desdeFilas(lista, tamanio);
+    }
+
+    // Una mascota por id con el plan de carga pedido
+
+    public Optional<Mascota> leer(long id, PlanCarga plan) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return leerUna(id, plan, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al leer mascota", e);
+        }
+    }
+
+    public Optional<Mascota> leer(long id, PlanCarga plan, Connection c) {
+        return leerUna(id, plan, c);
+    }
+
+    private Optional<Mascota> leerUna(long id, PlanCarga plan, Connection c) {
+        String sql = select(plan) + "WHERE m.id = ? AND m.eliminado = FALSE";
         try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapearMascota(rs, plan));
+                }
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Error al recuperar mascota (transaccional)", e);
+            throw new RuntimeException("Error al leer mascota (transaccional)", e);
+        }
+        return Optional.empty();
+    }
+
+    private static String select(PlanCarga plan) {
+        if (plan == null) {
+            throw new IllegalArgumentException("El plan de carga no puede ser null");
+        }
+        return plan == PlanCarga.COMPLETO ? SELECT_CON_MICROCHIP : SELECT_SIN_MICROCHIP;
+    }
+
+    private Mascota mapearMascota(ResultSet rs) throws SQLException {
+        return mapearMascota(rs, PlanCarga.COMPLETO);
+    }
+
+    // Mapea una fila de select(plan) a Mascota; con COMPLETO incluye su microchip si lo tiene
+    private Mascota mapearMascota(ResultSet rs, PlanCarga plan) throws SQLException {
+        Mascota m = new Mascota();
+        m.setId(rs.getLong("id"));
+        m.setNombre(rs.getString("nombre"));
+        // Columnas de pocos valores: una instancia compartida por valor distinto
+        m.setEspecie(DiccionarioValores.ESPECIES.interno(rs.getString("especie")));
+        m.setRaza(DiccionarioValores.RAZAS.interno(rs.getString("raza")));
+
+        m.setFechaNacimiento(rs.getDate("fecha_nacimiento").toLocalDate());
+
+        m.setDuenio(rs.getString("duenio"));
+        m.setEliminado(rs.getBoolean("eliminado"));
+        m.setVersion(rs.getLong("version"));
+
+        if (plan != PlanCarga.COMPLETO) {
+            long chipId = rs.getLong("microchip_id");
+            if (!rs.wasNull()) {
+                if (plan == PlanCarga.DIFERIDO) {
+                    m.setMicrochipDiferido(chipId, () -> microchips.leer(chipId).orElse(null));
+                } else {
+                    m.setMicrochipId(chipId);
+                }
+            }
+            m.marcarSinModificaciones();
+            return m;
+        }
+
+        // Microchip (puede ser null)
+        long mcId = rs.getLong("mc_id");
+        if (!rs.wasNull()) {
+            Microchip mc = new Microchip();
+            mc.setId(mcId);
+            mc.setEliminado(rs.getBoolean("mc_eliminado"));
+            mc.setVersion(rs.getLong("mc_version"));
+            mc.setCodigo(rs.getString("mc_codigo"));
+            mc.setFechaImplantacion(rs.getDate("mc_fecha_implantacion").toLocalDate());
+
+            mc.setVeterinaria(DiccionarioValores.VETERINARIAS.interno(rs.getString("mc_veterinaria")));
+            mc.setObservaciones(rs.getString("mc_observaciones"));
+            mc.marcarSinModificaciones();
+
+            m.setMicrochip(mc);
         }
+        // Desde acá se registran los cambios: actualizar() escribe solo lo que se modifique
+        m.marcarSinModificaciones();
+        return m;
     }
 }
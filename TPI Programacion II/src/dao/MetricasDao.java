@@ -0,0 +1,108 @@
+package dao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registro de métricas por operación de DAO.
+ *
+ * Por cada operación guarda cantidad de llamadas, errores, filas devueltas
+ * y un histograma de latencia (p50/p95/p99/máx). Lo usan los DAOs instrumentados
+ * (MascotaDaoInstrumentado, MicrochipDaoInstrumentado); el reporte se pide desde
+ * el menú o se vuelca periódicamente a un archivo.
+ */
+public final class MetricasDao {
+
+    private final ConcurrentHashMap<String, Operacion> operaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta y mide una operación que devuelve resultado.
+     * @param filas cómo contar las filas del resultado (ej: List::size)
+     */
+    public <R> R medir(String operacion, Supplier<R> accion, ToLongFunction<? super R> filas) {
+        Operacion op = operaciones.computeIfAbsent(operacion, k -> new Operacion());
+        long inicio = System.nanoTime();
+        try {
+            R resultado = accion.get();
+            op.filas.add(filas.applyAsLong(resultado));
+            return resultado;
+        } catch (RuntimeException e) {
+            op.errores.increment();
+            throw e;
+        } finally {
+            op.latencia.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /** Ejecuta y mide una operación sin resultado (actualizar, eliminar...). */
+    public void medir(String operacion, Runnable accion) {
+        medir(operacion, () -> {
+            accion.run();
+            return null;
+        }, r -> 0);
+    }
+
+    /** Foto de todas las operaciones en forma de tabla, ordenada por nombre. */
+    public String reporte() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %9s %7s %10s %10s %10s %10s %10s%n",
+                "Operación", "Llamadas", "Errores", "Filas", "p50", "p95", "p99", "máx"));
+        Map<String, Operacion> ordenadas = new TreeMap<>(operaciones);
+        for (Map.Entry<String, Operacion> e : ordenadas.entrySet()) {
+            Operacion op = e.getValue();
+            HistogramaLatencia h = op.latencia;
+            sb.append(String.format("%-28s %9d %7d %10d %10s %10s %10s %10s%n",
+                    e.getKey(), h.getCantidad(), op.errores.sum(), op.filas.sum(),
+                    HistogramaLatencia.formatear(h.percentil(50)),
+                    HistogramaLatencia.formatear(h.percentil(95)),
+                    HistogramaLatencia.formatear(h.percentil(99)),
+                    HistogramaLatencia.formatear(h.getMaximoNanos())));
+        }
+        if (ordenadas.isEmpty()) {
+            sb.append("(sin operaciones registradas)").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /** Agrega el reporte actual al final del archivo, con fecha y hora. */
+    public void volcar(Path archivo) throws IOException {
+        String contenido = "=== " + LocalDateTime.now() + " ===" + System.lineSeparator() + reporte();
+        Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** Programa un volcado periódico en un hilo daemon. */
+    public void programarVolcado(Path archivo, long periodoMs) {
+        ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vet-metricas-volcado");
+            t.setDaemon(true);
+            return t;
+        });
+        ejecutor.scheduleAtFixedRate(() -> {
+            try {
+                volcar(archivo);
+            } catch (IOException e) {
+                System.err.println("Error al volcar métricas: " + e.getMessage());
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Operacion {
+        private final HistogramaLatencia latencia = new HistogramaLatencia();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder filas = new LongAdder();
+    }
+}
@@ -0,0 +1,164 @@
+package dao;
+
+import entities.Microchip;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * MicrochipDaoJdbc instrumentado: cada método público se mide en MetricasDao
+ * (llamadas, errores, filas y latencia). Las variantes con Connection
+ * se registran con el sufijo [tx].
+ */
+public class MicrochipDaoInstrumentado extends MicrochipDaoJdbc {
+
+    private static final String P = "microchip.";
+
+    private final MetricasDao metricas;
+
+    public MicrochipDaoInstrumentado(MetricasDao metricas) {
+        if (metricas == null) {
+            throw new IllegalArgumentException("MetricasDao no puede ser null");
+        }
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Microchip crear(Microchip e) {
+        return metricas.medir(P + "crear", () -> super.crear(e), r -> 1);
+    }
+
+    @Override
+    public Microchip crear(Microchip e, Connection c) {
+        return metricas.medir(P + "crear[tx]", () -> super.crear(e, c), r -> 1);
+    }
+
+    @Override
+    public List<Microchip> crearTodos(List<Microchip> lista, Connection c) {
+        return metricas.medir(P + "crearTodos[tx]", () -> super.crearTodos(lista, c), List::size);
+    }
+
+    @Override
+    public Optional<Microchip> leer(long id) {
+        return metricas.medir(P + "leer", () -> super.leer(id), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<Microchip> leer(long id, Connection c) {
+        return metricas.medir(P + "leer[tx]", () -> super.leer(id, c), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public List<Microchip> leerTodos() {
+        return metricas.medir(P + "leerTodos", () -> super.leerTodos(), List::size);
+    }
+
+    @Override
+    public List<Microchip> leerTodos(Connection c) {
+        return metricas.medir(P + "leerTodos[tx]", () -> super.leerTodos(c), List::size);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Microchip> consumidor) {
+        return metricas.medir(P + "recorrerTodos", () -> super.recorrerTodos(consumidor), r -> r);
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Microchip> consumidor, Connection c) {
+        return metricas.medir(P + "recorrerTodos[tx]", () -> super.recorrerTodos(consumidor, c), r -> r);
+    }
+
+    @Override
+    public Pagina<Microchip> leerPagina(long despuesDeId, int tamanio) {
+        return metricas.medir(P + "leerPagina", () -> super.leerPagina(despuesDeId, tamanio),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public Pagina<Microchip> leerPagina(long despuesDeId, int tamanio, Connection c) {
+        return metricas.medir(P + "leerPagina[tx]", () -> super.leerPagina(despuesDeId, tamanio, c),
+                r -> r.getElementos().size());
+    }
+
+    @Override
+    public void actualizar(Microchip e) {
+        metricas.medir(P + "actualizar", () -> super.actualizar(e));
+    }
+
+    @Override
+    public void actualizar(Microchip e, Connection c) {
+        metricas.medir(P + "actualizar[tx]", () -> super.actualizar(e, c));
+    }
+
+    @Override
+    public void eliminar(long id) {
+        metricas.medir(P + "eliminar", () -> super.eliminar(id));
+    }
+
+    @Override
+    public void eliminar(long id, Connection c) {
+        metricas.medir(P + "eliminar[tx]", () -> super.eliminar(id, c));
+    }
+
+    @Override
+    public void recuperar(long id) {
+        metricas.medir(P + "recuperar", () -> super.recuperar(id));
+    }
+
+    @Override
+    public void recuperar(long id, Connection c) {
+        metricas.medir(P + "recuperar[tx]", () -> super.recuperar(id, c));
+    }
+
+    @Override
+    public int eliminarTodos(Collection<Long> ids, Connection c) {
+        return metricas.medir(P + "eliminarTodos[tx]", () -> super.eliminarTodos(ids, c), r -> r);
+    }
+
+    @Override
+    public int recuperarTodos(Collection<Long> ids, Connection c) {
+        return metricas.medir(P + "recuperarTodos[tx]", () -> super.recuperarTodos(ids, c), r -> r);
+    }
+
+    @Override
+    public Optional<Microchip> buscarPorCodigo(String codigo) {
+        return metricas.medir(P + "buscarPorCodigo", () -> super.buscarPorCodigo(codigo), r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public Optional<Microchip> buscarPorCodigo(String codigo, Connection c) {
+        return metricas.medir(P + "buscarPorCodigo[tx]", () -> super.buscarPorCodigo(codigo, c),
+                r -> r.isPresent() ? 1 : 0);
+    }
+
+    @Override
+    public long recorrerCodigos(boolean incluirEliminados, ObjLongConsumer<String> consumidor) {
+        return metricas.medir(P + "recorrerCodigos", () -> super.recorrerCodigos(incluirEliminados, consumidor),
+                r -> r);
+    }
+
+    @Override
+    public long recorrerCodigos(boolean incluirEliminados, ObjLongConsumer<String> consumidor, Connection c) {
+        return metricas.medir(P + "recorrerCodigos[tx]",
+                () -> super.recorrerCodigos(incluirEliminados, consumidor, c), r -> r);
+    }
+
+    @Override
+    public long contarCodigos() {
+        return metricas.medir(P + "contarCodigos", () -> super.contarCodigos(), r -> 1);
+    }
+
+    @Override
+    public long contarCodigos(Connection c) {
+        return metricas.medir(P + "contarCodigos[tx]", () -> super.contarCodigos(c), r -> 1);
+    }
+
+    @Override
+    public Set<String> codigosExistentes(Collection<String> codigos, Connection c) {
+        return metricas.medir(P + "codigosExistentes[tx]", () -> super.codigosExistentes(codigos, c), Set::size);
+    }
+}
@@ -4,13 +4,29 @@ import config.DatabaseConnection;
 import entities.Microchip;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
+    // Filas por viaje del cursor en los recorridos en streaming
+    private static final int FETCH_SIZE = DatabaseConnection.getConfig().getFetchSize();
+
+    // Filas por executeBatch() en crearTodos
+    private static final int BATCH_SIZE = DatabaseConnection.getConfig().getBatchSize();
+
+    private static final String INSERT
+            = "INSERT INTO microchip (codigo, fecha_implantacion, veterinaria, observaciones, eliminado) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    // Columnas que puede escribir actualizar(), en el orden en que entran al SET
+    private static final List<String> COLUMNAS_ACTUALIZABLES = List.of(
+            "codigo", "fecha_implantacion", "veterinaria", "observaciones", "eliminado");
+
     @Override
     public Microchip crear(Microchip m) {
         try (Connection c = DatabaseConnection.getConnection()) {
-            return crear(m, c);
+            return insertarUno(m, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al crear microchip", e);
         }
@@ -18,14 +34,12 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
     @Override
     public Microchip crear(Microchip m, Connection c) {
-        String sql = "INSERT INTO microchip (codigo, fecha_implantacion, veterinaria, observaciones, eliminado) "
-                + "VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, m.getCodigo());
-            ps.setDate(2, java.sql.Date.valueOf(m.getFechaImplantacion()));
-            ps.setString(3, m.getVeterinaria());
-            ps.setString(4, m.getObservaciones());
-            ps.setBoolean(5, m.isEliminado());
+        return insertarUno(m, c);
+    }
+
+    private Microchip insertarUno(Microchip m, Connection c) {
+        try (PreparedStatement ps = c.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            cargarInsert(ps, m);
             ps.executeUpdate();
 
             try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -33,12 +47,48 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
                     m.setId(rs.getLong(1));
                 }
             }
+            m.marcarSinModificaciones();
             return m;
         } catch (SQLException e) {
             throw new RuntimeException("Error al insertar microchip", e);
         }
     }
 
+    @Override
+    public List<Microchip> crearTodos(List<Microchip> microchips, Connection c) {
+        if (microchips == null) {
+            throw new IllegalArgumentException("La lista de microchips no puede ser null");
+        }
+        try {
+            InsercionPorLotes.insertar(c, INSERT, microchips, BATCH_SIZE, this::cargarInsert);
+            return microchips;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al insertar microchips por lotes", e);
+        }
+    }
+
+    // Parámetros del INSERT, compartidos por crear y crearTodos
+    private void cargarInsert(PreparedStatement ps, Microchip m) throws SQLException {
+        ps.setString(1, m.getCodigo());
+        ps.setDate(2, java.sql.Date.valueOf(m.getFechaImplantacion()));
+        ps.setString(3, m.getVeterinaria());
+        ps.setString(4, m.getObservaciones());
+        ps.setBoolean(5, m.isEliminado());
+    }
+
+    // Valor de una columna de COLUMNAS_ACTUALIZABLES para el UPDATE parcial
+    private void cargarColumna(PreparedStatement ps, int i, String columna, Microchip m) throws SQLException {
+        switch (columna) {
+            case "codigo" -> ps.setString(i, m.getCodigo());
+            case "fecha_implantacion" -> ps.setDate(i, m.getFechaImplantacion() != null
+                    ? java.sql.Date.valueOf(m.getFechaImplantacion()) : null);
+            case "veterinaria" -> ps.setString(i, m.getVeterinaria());
+            case "observaciones" -> ps.setString(i, m.getObservaciones());
+            case "eliminado" -> ps.setBoolean(i, m.isEliminado());
+            default -> throw new IllegalArgumentException("Columna no actualizable: " + columna);
+        }
+    }
+
     @Override
     public Optional<Microchip> leer(long id) {
         String sql = "SELECT * FROM microchip WHERE id = ? AND eliminado = FALSE";
@@ -60,7 +110,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
     @Override
     public List<Microchip> leerTodos() {
         List<Microchip> lista = new ArrayList<>();
-        String sql = "SELECT * FROM microchip AND eliminado = FALSE";
+        String sql = "SELECT * FROM microchip WHERE eliminado = FALSE";
         try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 lista.add(mapearResultSet(rs));
@@ -73,15 +123,11 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
     @Override
     public void actualizar(Microchip m) {
-        String sql = "UPDATE microchip SET codigo=?, fecha_implantacion=?, veterinaria=?, observaciones=?, eliminado=? WHERE id=?";
-        try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, m.getCodigo());
-            ps.setDate(2, java.sql.Date.valueOf(m.getFechaImplantacion()));
-            ps.setString(3, m.getVeterinaria());
-            ps.setString(4, m.getObservaciones());
-            ps.setBoolean(5, m.isEliminado());
-            ps.setLong(6, m.getId());
-            ps.executeUpdate();
+        if (!m.hayModificaciones()) {
+            return; // sin cambios: ni conexión ni sentencia
+        }
+        try (Connection c = DatabaseConnection.getConnection()) {
+            actualizarCambios(m, c);
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar microchip", e);
         }
@@ -89,7 +135,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
     @Override
     public void eliminar(long id) {
-        String sql = "UPDATE microchip SET eliminado = TRUE WHERE id=?";
+        String sql = "UPDATE microchip SET eliminado = TRUE, version = version + 1 WHERE id=? AND eliminado = FALSE";
         try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setLong(1, id);
@@ -101,7 +147,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
     }
 
     public void recuperar(long id) {
-        String sql = "UPDATE microchip SET eliminado = FALSE WHERE id=?";
+        String sql = "UPDATE microchip SET eliminado = FALSE, version = version + 1 WHERE id=? AND eliminado = TRUE";
         try (Connection c = DatabaseConnection.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setLong(1, id);
@@ -112,18 +158,18 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
         }
     }
 
-    // Métodos con Connection
+    // Métodos con Connection. Las variantes sin Connection no los llaman: usan los
+    // helpers privados, así una subclase que los redefine (MicrochipDaoInstrumentado)
+    // no mide dos veces la misma operación.
     @Override
     public void actualizar(Microchip m, Connection c) {
-        String sql = "UPDATE microchip SET codigo=?, fecha_implantacion=?, veterinaria=?, observaciones=?, eliminado=? WHERE id=?";
-        try (PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, m.getCodigo());
-            ps.setDate(2, java.sql.Date.valueOf(m.getFechaImplantacion()));
-            ps.setString(3, m.getVeterinaria());
-            ps.setString(4, m.getObservaciones());
-            ps.setBoolean(5, m.isEliminado());
-            ps.setLong(6, m.getId());
-            ps.executeUpdate();
+        actualizarCambios(m, c);
+    }
+
+    private void actualizarCambios(Microchip m, Connection c) {
+        // Solo las columnas modificadas; sin cambios no se envía nada
+        try {
+            ActualizacionParcial.ejecutar(c, "microchip", COLUMNAS_ACTUALIZABLES, m, this::cargarColumna);
         } catch (SQLException e) {
             throw new RuntimeException("Error al actualizar microchip (transaccional)", e);
         }
@@ -131,7 +177,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
     @Override
     public void eliminar(long id, Connection c) {
-        String sql = "UPDATE microchip SET eliminado = TRUE WHERE id=?";
+        String sql = "UPDATE microchip SET eliminado = TRUE, version = version + 1 WHERE id=? AND eliminado = FALSE";
         try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -159,7 +205,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
     @Override
     public List<Microchip> leerTodos(Connection c) {
         List<Microchip> lista = new ArrayList<>();
-        String sql = "SELECT * FROM microchip AND eliminado = FALSE";
+        String sql = "SELECT * FROM microchip WHERE eliminado = FALSE";
         try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 lista.add(mapearResultSet(rs));
@@ -171,7 +217,7 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
     }
 
     public void recuperar(long id, Connection c) {
-        String sql = "UPDATE microchip SET eliminado = FALSE WHERE id=?";
+        String sql = "UPDATE microchip SET eliminado = FALSE, version = version + 1 WHERE id=? AND eliminado = TRUE";
         try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -180,6 +226,220 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
         }
     }
 
+    // Búsqueda por código (clave natural, UNIQUE en el esquema)
+
+    public Optional<Microchip> buscarPorCodigo(String codigo) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return buscarCodigo(codigo, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar microchip por código", e);
+        }
+    }
+
+    public Optional<Microchip> buscarPorCodigo(String codigo, Connection c) {
+        return buscarCodigo(codigo, c);
+    }
+
+    private Optional<Microchip> buscarCodigo(String codigo, Connection c) {
+        String sql = "SELECT * FROM microchip WHERE codigo = ? AND eliminado = FALSE";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, codigo);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapearResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al buscar microchip por código (transaccional)", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Recorre en streaming solo los pares (código, id), para construir índices
+     * en memoria sin mapear la entidad completa.
+     *
+     * @param incluirEliminados true para recorrer también las bajas lógicas
+     *                          (el UNIQUE de codigo las incluye)
+     * @return cantidad de filas recorridas
+     */
+    public long recorrerCodigos(boolean incluirEliminados, ObjLongConsumer<String> consumidor) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return recorrerPares(incluirEliminados, consumidor, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer códigos de microchip", e);
+        }
+    }
+
+    public long recorrerCodigos(boolean incluirEliminados, ObjLongConsumer<String> consumidor, Connection c) {
+        return recorrerPares(incluirEliminados, consumidor, c);
+    }
+
+    private long recorrerPares(boolean incluirEliminados, ObjLongConsumer<String> consumidor, Connection c) {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        String sql = "SELECT id, codigo FROM microchip" + (incluirEliminados ? "" : " WHERE eliminado = FALSE");
+        try (PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            long filas = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(rs.getString(2), rs.getLong(1));
+                    filas++;
+                }
+            }
+            return filas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer códigos de microchip (transaccional)", e);
+        }
+    }
+
+    /** Cantidad de códigos registrados, incluidas las bajas lógicas. */
+    public long contarCodigos() {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return contar(c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al contar microchips", e);
+        }
+    }
+
+    public long contarCodigos(Connection c) {
+        return contar(c);
+    }
+
+    private long contar(Connection c) {
+        String sql = "SELECT COUNT(*) FROM microchip";
+        try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al contar microchips (transaccional)", e);
+        }
+    }
+
+    /**
+     * De los códigos dados, los que ya existen en la tabla (activos o no),
+     * consultados en tramos de dao.batchSize.
+     */
+    public Set<String> codigosExistentes(Collection<String> codigos, Connection c) {
+        List<String> lista = new ArrayList<>(codigos);
+        Set<String> existentes = new HashSet<>();
+        try {
+            for (int desde = 0; desde < lista.size(); desde += BATCH_SIZE) {
+                List<String> tramo = lista.subList(desde, Math.min(desde + BATCH_SIZE, lista.size()));
+                String sql = "SELECT codigo FROM microchip WHERE codigo IN ("
+                        + String.join(", ", Collections.nCopies(tramo.size(), "?")) + ")";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < tramo.size(); i++) {
+                        ps.setString(i + 1, tramo.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            existentes.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al verificar códigos de microchip (transaccional)", e);
+        }
+        return existentes;
+    }
+
+    // Bajas y recuperaciones masivas
+
+    @Override
+    public int eliminarTodos(Collection<Long> ids, Connection c) {
+        try {
+            return ActualizacionPorIds.ejecutar(c, "UPDATE microchip SET eliminado = TRUE, version = version + 1 "
+                    + "WHERE eliminado = FALSE AND id IN (" + ActualizacionPorIds.IDS + ")",
+                    ActualizacionPorIds.normalizar(ids), BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al eliminar microchips (transaccional)", e);
+        }
+    }
+
+    /** @return cantidad de microchips recuperados */
+    @Override
+    public int recuperarTodos(Collection<Long> ids, Connection c) {
+        try {
+            return ActualizacionPorIds.ejecutar(c, "UPDATE microchip SET eliminado = FALSE, version = version + 1 "
+                    + "WHERE eliminado = TRUE AND id IN (" + ActualizacionPorIds.IDS + ")",
+                    ActualizacionPorIds.normalizar(ids), BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recuperar microchips (transaccional)", e);
+        }
+    }
+
+    // Recorrido en streaming
+    @Override
+    public long recorrerTodos(Consumer<? super Microchip> consumidor) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return recorrer(consumidor, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer microchips", e);
+        }
+    }
+
+    @Override
+    public long recorrerTodos(Consumer<? super Microchip> consumidor, Connection c) {
+        return recorrer(consumidor, c);
+    }
+
+    private long recorrer(Consumer<? super Microchip> consumidor, Connection c) {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        String sql = "SELECT * FROM microchip WHERE eliminado = FALSE ORDER BY id";
+        try (PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            long filas = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapearResultSet(rs));
+                    filas++;
+                }
+            }
+            return filas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al recorrer microchips (transaccional)", e);
+        }
+    }
+
+    // Paginación por clave
+    @Override
+    public Pagina<Microchip> leerPagina(long despuesDeId, int tamanio) {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            return paginar(despuesDeId, tamanio, c);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al paginar microchips", e);
+        }
+    }
+
+    @Override
+    public Pagina<Microchip> leerPagina(long despuesDeId, int tamanio, Connection c) {
+        return paginar(despuesDeId, tamanio, c);
+    }
+
+    private Pagina<Microchip> paginar(long despuesDeId, int tamanio, Connection c) {
+        Pagina.validarTamanio(tamanio);
+        String sql = "SELECT * FROM microchip WHERE id > ? AND eliminado = FALSE ORDER BY id LIMIT ?";
+        List<Microchip> lista = new ArrayList<>(tamanio + 1);
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, despuesDeId);
+            ps.setInt(2, tamanio + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al paginar microchips (transaccional)", e);
+        }
+        return Pagina.desdeFilas(lista, tamanio);
+    }
+
     // Método auxiliar para mapear ResultSet a objeto
     /*private Microchip mapearResultSet(ResultSet rs) throws SQLException {
         Microchip m = new Microchip();
@@ -199,16 +459,18 @@ public class MicrochipDaoJdbc implements GenericDao<Microchip> {
 
         // eliminado: si es TINYINT(1) 0/1
         m.setEliminado(rs.getBoolean("eliminado"));
+        m.setVersion(rs.getLong("version"));
 
         m.setCodigo(rs.getString("codigo"));
 
         m.setFechaImplantacion(rs.getDate("fecha_implantacion").toLocalDate());
 
-        m.setVeterinaria(rs.getString("veterinaria"));
+        m.setVeterinaria(DiccionarioValores.VETERINARIAS.interno(rs.getString("veterinaria")));
 
         // NULL acá no tiene problema, getString devuelve null
         m.setObservaciones(rs.getString("observaciones"));
 
+        m.marcarSinModificaciones();
         return m;
     }
 
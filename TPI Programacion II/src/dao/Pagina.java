@@ -0,0 +1,70 @@
+package dao;
+
+import entities.Base;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta paginada por clave (keyset).
+ *
+ * En lugar de OFFSET se usa el último id visto como cursor:
+ * WHERE id > ? ORDER BY id LIMIT ?, así cada página cuesta lo mismo
+ * sin importar qué tan adentro de la tabla esté.
+ *
+ * @param <T> tipo de entidad de la página
+ */
+public final class Pagina<T> {
+
+    private final List<T> elementos;
+
+    /**
+     * Id desde el cual pedir la página siguiente, o null si no hay más. Las consultas
+     * ordenadas por otra columna (buscarPorDuenio) toman el cursor completo de la
+     * última entidad de la página.
+     */
+    private final Long siguienteCursor;
+
+    public Pagina(List<T> elementos, Long siguienteCursor) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió {@code tamanio + 1} filas:
+     * si vino la fila extra, se descarta y hay página siguiente.
+     */
+    static <T extends Base> Pagina<T> desdeFilas(List<T> filas, int tamanio) {
+        validarTamanio(tamanio);
+        if (filas.size() > tamanio) {
+            filas.remove(tamanio);
+            return new Pagina<>(filas, filas.get(tamanio - 1).getId());
+        }
+        return new Pagina<>(filas, null);
+    }
+
+    /**
+     * Lo usan los DAOs antes de consultar (el tope lo pone cada service).
+     * @throws IllegalArgumentException si el tamaño no es positivo
+     */
+    static void validarTamanio(int tamanio) {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    public Long getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return elementos.isEmpty();
+    }
+}
@@ -0,0 +1,21 @@
+package dao;
+
+/**
+ * Qué se carga del microchip al leer mascotas.
+ *
+ * - COMPLETO: el microchip activo viene en la misma consulta (LEFT JOIN), como siempre.
+ * - DIFERIDO: sin JOIN; el microchip se lee recién en el primer getMicrochip(),
+ *   con su propia conexión, y solo si la mascota tiene uno enlazado.
+ * - SOLO_ID: sin JOIN ni objeto Microchip; getMicrochip() devuelve null y
+ *   getMicrochipId() el valor de microchip_id (el chip puede estar dado de baja).
+ *
+ * Los recorridos que no miran el chip (índices en memoria, listados de nombres)
+ * usan SOLO_ID y se ahorran el JOIN y una instancia de Microchip por fila.
+ *
+ * @author Astrid
+ */
+public enum PlanCarga {
+    COMPLETO,
+    DIFERIDO,
+    SOLO_ID
+}
@@ -1,5 +1,11 @@
 package entities;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
 /**
  * Clase base abstracta para todas las entidades del sistema.
  * Implementa el patrón de soft delete mediante el campo 'eliminado'.
@@ -8,6 +14,9 @@ package entities;
  * - Proporcionar campos comunes a todas las entidades (id, eliminado)
  * - Implementar el patrón de herencia para evitar duplicación de código
  * - Soportar eliminación lógica en lugar de eliminación física
+ * - Registrar qué columnas cambiaron desde la última lectura/escritura (dirty tracking),
+ *   para que los DAOs actualicen solo esas y omitan el UPDATE si no cambió nada
+ * - Llevar la versión de la fila (control de concurrencia optimista)
  *
  * Patrón de diseño: Template (clase base abstracta)
  */
@@ -28,6 +37,20 @@ public abstract class Base {
      */
     private boolean eliminado;
 
+    /**
+     * Versión de la fila cuando se leyó (columna version, 05_migracion_version.sql).
+     * Cada UPDATE la incrementa y solo se aplica si la fila sigue en esta versión:
+     * si otra terminal la modificó antes, el DAO lanza ConflictoConcurrenciaException.
+     */
+    private long version;
+
+    /**
+     * Columnas modificadas desde que la entidad se leyó o se escribió en la BD.
+     * null = entidad sin seguimiento (armada a mano): se considera todo modificado,
+     * y los DAOs no la actualizan (no tiene una versión leída contra la cual comparar).
+     */
+    private Set<String> modificados;
+
     /**
      * Constructor completo con todos los campos.
      * Usado por los DAOs al reconstruir entidades desde la base de datos.
@@ -66,6 +89,66 @@ public abstract class Base {
 
     /** Marca o desmarca la entidad como eliminada. */
     public void setEliminado(boolean eliminado) {
+        registrarCambio("eliminado", this.eliminado, eliminado);
         this.eliminado = eliminado;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** Solo para los DAOs: no cuenta como modificación de la entidad. */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    // Seguimiento de cambios
+
+    /** ¿Cambió la columna desde la última lectura/escritura? (siempre true sin seguimiento) */
+    public boolean isModificado(String columna) {
+        return modificados == null || modificados.contains(columna);
+    }
+
+    /** ¿Hay algo que escribir? false solo si la entidad coincide con lo que tiene la BD. */
+    public boolean hayModificaciones() {
+        return modificados == null || !modificados.isEmpty();
+    }
+
+    /** Columnas modificadas, o null si la entidad no tiene seguimiento. */
+    public Set<String> getModificados() {
+        return modificados != null ? Collections.unmodifiableSet(modificados) : null;
+    }
+
+    /**
+     * La entidad coincide con su fila: los DAOs lo llaman después de leerla o escribirla
+     * y desde ahí se registran los cambios.
+     */
+    public void marcarSinModificaciones() {
+        modificados = new HashSet<>();
+    }
+
+    /**
+     * Solo para los DAOs, con el commit de un UPDATE: la entidad pasa a la versión
+     * nueva y las columnas escritas dejan de estar pendientes. Las que se modificaron
+     * mientras tanto siguen pendientes.
+     */
+    public void confirmarEscritura(long versionNueva, Collection<String> columnas) {
+        version = versionNueva;
+        if (modificados != null) {
+            modificados.removeAll(columnas);
+        }
+    }
+
+    /** Los setters de las subclases registran la columna solo si el valor cambia de verdad. */
+    protected void registrarCambio(String columna, Object anterior, Object nuevo) {
+        if (modificados != null && !Objects.equals(anterior, nuevo)) {
+            modificados.add(columna);
+        }
+    }
+
+    /** Para los constructores de copia: la copia conserva la versión y el estado de seguimiento. */
+    protected void copiarSeguimiento(Base otra) {
+        version = otra.version;
+        modificados = otra.modificados != null ? new HashSet<>(otra.modificados) : null;
+    }
 }
@@ -1,6 +1,8 @@
 package entities;
 
 import java.time.LocalDate;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 public class Mascota extends Base {
 
@@ -11,6 +13,12 @@ public class Mascota extends Base {
     private String duenio;
     private Microchip microchip;
 
+    // microchip_id tal como se leyó; con el plan de carga SOLO_ID es lo único que se trae del chip
+    private Long microchipId;
+
+    // Carga diferida del microchip (plan DIFERIDO): se ejecuta una vez, en el primer getMicrochip()
+    private Supplier<Microchip> cargadorMicrochip;
+
     public Mascota() {
         super(); // Base() => eliminado = false
     }
@@ -33,6 +41,19 @@ public class Mascota extends Base {
         this.microchip = microchip;
     }
 
+    /**
+     * Constructor de copia (incluye una copia del microchip).
+     * Lo usa la caché de MascotaService para no compartir instancias mutables.
+     */
+    public Mascota(Mascota otra) {
+        this(otra.getId(), otra.nombre, otra.especie, otra.raza, otra.fechaNacimiento, otra.duenio,
+             otra.microchip != null ? new Microchip(otra.microchip) : null, otra.isEliminado());
+        // Copiar no dispara la carga diferida: la copia hereda el cargador pendiente
+        this.microchipId = otra.microchipId;
+        this.cargadorMicrochip = otra.cargadorMicrochip;
+        copiarSeguimiento(otra);
+    }
+
     // Ya NO van ni id ni eliminado (se heredan de Base)
 
     public String getNombre() {
@@ -43,6 +64,7 @@ public class Mascota extends Base {
         if (nombre == null || nombre.isBlank()) {
             throw new IllegalArgumentException("El nombre no puede estar vacío");
         }
+        registrarCambio("nombre", this.nombre, nombre.trim());
         this.nombre = nombre.trim();
     }
 
@@ -54,6 +76,7 @@ public class Mascota extends Base {
         if (especie == null || especie.isBlank()) {
             throw new IllegalArgumentException("La especie no puede estar vacía");
         }
+        registrarCambio("especie", this.especie, especie.trim());
         this.especie = especie.trim();
     }
 
@@ -65,6 +88,7 @@ public class Mascota extends Base {
         if (raza == null || raza.isBlank()) {
             throw new IllegalArgumentException("La raza no puede estar vacía");
         }
+        registrarCambio("raza", this.raza, raza.trim());
         this.raza = raza.trim();
     }
 
@@ -76,6 +100,7 @@ public class Mascota extends Base {
         if (fechaNacimiento != null && fechaNacimiento.isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("La fecha de nacimiento no puede ser futura");
         }
+        registrarCambio("fecha_nacimiento", this.fechaNacimiento, fechaNacimiento);
         this.fechaNacimiento = fechaNacimiento;
     }
 
@@ -87,15 +112,54 @@ public class Mascota extends Base {
         if (duenio == null || duenio.isBlank()) {
             throw new IllegalArgumentException("La mascota debe tener un duenio");
         }
+        registrarCambio("duenio", this.duenio, duenio.trim());
         this.duenio = duenio.trim();
     }
 
+    /** El microchip; con carga diferida se lee en la primera llamada (null si no tiene o con SOLO_ID). */
     public Microchip getMicrochip() {
+        if (cargadorMicrochip != null) {
+            Supplier<Microchip> cargador = cargadorMicrochip;
+            cargadorMicrochip = null;
+            microchip = cargador.get();
+        }
         return microchip;
     }
 
     public void setMicrochip(Microchip microchip) {
+        // Otra instancia cuenta como cambio aunque el id sea el mismo (un chip nuevo aún no tiene id)
+        if (microchip != this.microchip || !Objects.equals(getMicrochipId(), microchip != null ? microchip.getId() : null)) {
+            registrarCambio("microchip_id", this.microchip, microchip);
+        }
         this.microchip = microchip;
+        this.microchipId = microchip != null ? microchip.getId() : null;
+        this.cargadorMicrochip = null;
+    }
+
+    /** Id del microchip enlazado, sin cargarlo (null si no tiene). */
+    public Long getMicrochipId() {
+        return microchip != null ? microchip.getId() : microchipId;
+    }
+
+    /** Solo el id del microchip (plan SOLO_ID): getMicrochip() devuelve null. */
+    public void setMicrochipId(Long microchipId) {
+        registrarCambio("microchip_id", getMicrochipId(), microchipId);
+        this.microchip = null;
+        this.microchipId = microchipId;
+        this.cargadorMicrochip = null;
+    }
+
+    /** Microchip a cargar recién cuando se pida (plan DIFERIDO). */
+    public void setMicrochipDiferido(Long microchipId, Supplier<Microchip> cargador) {
+        registrarCambio("microchip_id", getMicrochipId(), microchipId);
+        this.microchip = null;
+        this.microchipId = microchipId;
+        this.cargadorMicrochip = cargador;
+    }
+
+    /** false si el microchip todavía no se leyó (carga diferida pendiente). */
+    public boolean isMicrochipCargado() {
+        return cargadorMicrochip == null;
     }
 
     @Override
@@ -108,7 +172,15 @@ public class Mascota extends Base {
                 ", Raza = " + raza +
                 ", Fecha Nacimiento = " + fechaNacimiento +
                 ", Duenio = " + duenio +
-                ", Microchip = " + microchip +
+                ", Microchip = " + describirMicrochip() +
                 '}';
     }
+
+    // toString no dispara la carga diferida
+    private String describirMicrochip() {
+        if (microchip != null || microchipId == null) {
+            return String.valueOf(microchip);
+        }
+        return "(id " + microchipId + (cargadorMicrochip != null ? ", sin cargar)" : ")");
+    }
 }
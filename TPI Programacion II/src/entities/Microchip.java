@@ -27,6 +27,13 @@ public class Microchip extends Base {
         this.observaciones = observaciones;
     }
 
+    // Constructor de copia (lo usan las cachés de los services)
+    public Microchip(Microchip otro) {
+        this(otro.getId(), otro.codigo, otro.fechaImplantacion, otro.veterinaria,
+             otro.observaciones, otro.isEliminado());
+        copiarSeguimiento(otro);
+    }
+
     // Override opcional para conservar tu validación de id
     @Override
     public void setId(Long id) {
@@ -43,6 +50,7 @@ public class Microchip extends Base {
         if (codigo == null || codigo.isBlank()) {
             throw new IllegalArgumentException("El código del microchip no puede estar vacío");
         }
+        registrarCambio("codigo", this.codigo, codigo.trim());
         this.codigo = codigo.trim();
     }
 
@@ -54,6 +62,7 @@ public class Microchip extends Base {
         if (fechaImplantacion != null && fechaImplantacion.isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Fecha inválida");
         }
+        registrarCambio("fecha_implantacion", this.fechaImplantacion, fechaImplantacion);
         this.fechaImplantacion = fechaImplantacion;
     }
 
@@ -65,6 +74,7 @@ public class Microchip extends Base {
         if (veterinaria == null || veterinaria.isBlank()) {
             throw new IllegalArgumentException("La veterinaria no puede estar vacía");
         }
+        registrarCambio("veterinaria", this.veterinaria, veterinaria.trim());
         this.veterinaria = veterinaria.trim();
     }
 
@@ -73,6 +83,7 @@ public class Microchip extends Base {
     }
 
     public void setObservaciones(String observaciones) {
+        registrarCambio("observaciones", this.observaciones, observaciones);
         this.observaciones = observaciones;
     }
 
@@ -2,9 +2,26 @@ package main;
 
 import java.util.Scanner;
 
+import java.nio.file.Paths;
+
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+
+import dao.CatalogoDaoJdbc;
+import dao.MascotaDaoInstrumentado;
 import dao.MascotaDaoJdbc;
+import dao.MetricasDao;
+import dao.MicrochipDaoInstrumentado;
 import dao.MicrochipDaoJdbc;
 
+import entities.Mascota;
+import entities.Microchip;
+
+import service.AutocompletadoMascotas;
+import service.BusquedaFoneticaDuenios;
+import service.CacheEntidades;
+import service.CatalogoService;
+import service.IndiceCodigos;
 import service.MascotaService;
 import service.MicrochipService;
 
@@ -32,13 +49,26 @@ public class AppMenu {
     public AppMenu() {
         this.scanner = new Scanner(System.in);
         
+        // Métricas de latencia compartidas por los DAOs instrumentados
+        MetricasDao metricas = createMetricas();
+
         // Factory methods para crear los services
-        MicrochipDaoJdbc microchipDao = new MicrochipDaoJdbc();
-        MascotaService mascotaService = createMascotaService(microchipDao);
-        MicrochipService microchipService = createMicrochipService(microchipDao);
+        MicrochipDaoJdbc microchipDao = new MicrochipDaoInstrumentado(metricas);
+        // Cachés compartidas: lo que escribe un service lo invalida también para el otro
+        CacheEntidades<Mascota> cacheMascotas = MascotaService.crearCacheMascotas();
+        CacheEntidades<Microchip> cacheMicrochips = MicrochipService.crearCacheMicrochips();
+        IndiceCodigos indiceCodigos = MicrochipService.crearIndiceCodigos();
+        // Catálogos compartidos: validan especie/raza y veterinaria en memoria
+        CatalogoService catalogos = new CatalogoService(new CatalogoDaoJdbc());
+        MascotaService mascotaService = createMascotaService(microchipDao, metricas, cacheMascotas, cacheMicrochips,
+                indiceCodigos, MascotaService.crearAutocompletado(), MascotaService.crearBusquedaFonetica(), catalogos);
+        MicrochipService microchipService = createMicrochipService(microchipDao, cacheMascotas, cacheMicrochips,
+                indiceCodigos, catalogos);
+        cargarCatalogos(catalogos);
+        cargarIndices(mascotaService, microchipService);
         
         // Handler
-        this.menuHandler = new MenuHandler(scanner, mascotaService, microchipService);
+        this.menuHandler = new MenuHandler(scanner, mascotaService, microchipService, metricas);
         
         this.running = true;
     }
@@ -96,6 +126,11 @@ public class AppMenu {
      * 7  → Actualizar Microchip
      * 8  → Buscar Microchip por ID
      * 9  → Eliminar Microchip
+     * 10 → Estadísticas de rendimiento
+     * 11 → Buscar Microchip por código
+     * 12 → Buscar Mascotas por dueño
+     * 13 → Autocompletar nombre de mascota / dueño
+     * 14 → Buscar dueños por parecido
      * 0  → Salir
      */
     
@@ -110,6 +145,11 @@ public class AppMenu {
             case 7 -> menuHandler.actualizarMicrochip();
             case 8 -> menuHandler.buscarMicrochipPorId();
             case 9 -> menuHandler.eliminarMicrochip();
+            case 10 -> menuHandler.mostrarEstadisticas();
+            case 11 -> menuHandler.buscarMicrochipPorCodigo();
+            case 12 -> menuHandler.buscarMascotasPorDuenio();
+            case 13 -> menuHandler.autocompletar();
+            case 14 -> menuHandler.buscarDueniosParecidos();
             case 0 -> {
                 System.out.println("Saliendo...");
                 running = false;
@@ -123,8 +163,8 @@ public class AppMenu {
      * Implementa inyección de dependencias manual.
      *
      * Orden de creación (bottom-up desde la capa más baja):
-     * 1. MascotaDaoJdbc: Sin dependencias, acceso directo a BD
-     * 2. MicrochipDaoJdbc: Sin dependencias, acceso directo a BD
+     * 1. MascotaDaoJdbc: acceso directo a BD (versión instrumentada con MetricasDao)
+     * 2. MicrochipDaoJdbc: acceso directo a BD (versión instrumentada con MetricasDao)
      * 3. MascotaService: Depende de MascotaDaoJdbc y MicrochipDaoJdbc
      *
      * Arquitectura resultante (4 capas):
@@ -137,21 +177,96 @@ public class AppMenu {
      * Entities (Mascota, Microchip)
      *
      * @param microchipDao Instancia compartida de MicrochipDaoJdbc
+     * @param metricas Registro de métricas de los DAOs
+     * @param cacheMascotas Caché compartida de mascotas
+     * @param cacheMicrochips Caché compartida de microchips
+     * @param indiceCodigos Índice compartido codigo → id de microchips
+     * @param autocompletado Autocompletado de nombres y dueños que consulta el menú
+     * @param busquedaFonetica Búsqueda aproximada de dueños que consulta el menú
+     * @param catalogos Catálogos compartidos de especie/raza y veterinarias
      * @return MascotaService completamente inicializado con sus dependencias
      */
-    private MascotaService createMascotaService(MicrochipDaoJdbc microchipDao) {
-        MascotaDaoJdbc mascotaDao = new MascotaDaoJdbc();
-        return new MascotaService(mascotaDao, microchipDao);
+    private MascotaService createMascotaService(MicrochipDaoJdbc microchipDao, MetricasDao metricas,
+                                                CacheEntidades<Mascota> cacheMascotas,
+                                                CacheEntidades<Microchip> cacheMicrochips,
+                                                IndiceCodigos indiceCodigos,
+                                                AutocompletadoMascotas autocompletado,
+                                                BusquedaFoneticaDuenios busquedaFonetica,
+                                                CatalogoService catalogos) {
+        MascotaDaoJdbc mascotaDao = new MascotaDaoInstrumentado(metricas);
+        return new MascotaService(mascotaDao, microchipDao, cacheMascotas, cacheMicrochips, indiceCodigos,
+                autocompletado, busquedaFonetica, catalogos);
     }
 
     /**
      * Factory method para crear MicrochipService.
-     * MicrochipService depende únicamente de MicrochipDaoJdbc.
+     * MicrochipService depende de MicrochipDaoJdbc y de las cachés compartidas.
      *
      * @param microchipDao Instancia compartida de MicrochipDaoJdbc
+     * @param cacheMascotas Caché compartida de mascotas
+     * @param cacheMicrochips Caché compartida de microchips
+     * @param indiceCodigos Índice compartido codigo → id de microchips
+     * @param catalogos Catálogos compartidos de especie/raza y veterinarias
      * @return MicrochipService inicializado
      */
-    private MicrochipService createMicrochipService(MicrochipDaoJdbc microchipDao) {
-        return new MicrochipService(microchipDao);
+    private MicrochipService createMicrochipService(MicrochipDaoJdbc microchipDao,
+                                                    CacheEntidades<Mascota> cacheMascotas,
+                                                    CacheEntidades<Microchip> cacheMicrochips,
+                                                    IndiceCodigos indiceCodigos,
+                                                    CatalogoService catalogos) {
+        return new MicrochipService(microchipDao, cacheMicrochips, cacheMascotas, indiceCodigos, catalogos);
+    }
+
+    /**
+     * Carga los catálogos (también siembran los diccionarios de especie/raza/veterinaria)
+     * y programa su recarga periódica. Si la BD no está disponible se reintenta en
+     * cada recarga y, mientras tanto, las altas no se validan contra el catálogo.
+     */
+    private void cargarCatalogos(CatalogoService catalogos) {
+        try {
+            catalogos.cargar();
+        } catch (Exception e) {
+            System.err.println("No se pudieron precargar los catálogos: " + e.getMessage());
+        }
+        catalogos.iniciarRefresco(DatabaseConnection.getConfig().getCatalogosRefrescoMs());
+    }
+
+    /**
+     * Precarga los índices en memoria (códigos de microchip, autocompletado y búsqueda fonética).
+     * Si la BD no está disponible la aplicación arranca igual: las búsquedas
+     * por código consultan la BD y van completando el índice, y el autocompletado
+     * solo ofrece lo que se escriba desde el menú.
+     */
+    private void cargarIndices(MascotaService mascotaService, MicrochipService microchipService) {
+        try {
+            microchipService.cargarIndiceCodigos();
+        } catch (Exception e) {
+            System.err.println("No se pudo precargar el índice de códigos: " + e.getMessage());
+        }
+        try {
+            mascotaService.cargarAutocompletado();
+        } catch (Exception e) {
+            System.err.println("No se pudo precargar el autocompletado: " + e.getMessage());
+        }
+        try {
+            mascotaService.cargarBusquedaFonetica(DatabaseConnection.getConfig().getBusquedaFoneticaHilos());
+        } catch (Exception e) {
+            System.err.println("No se pudo precargar la búsqueda fonética: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Factory method para el registro de métricas de los DAOs.
+     * Si db.properties define metricas.archivo, programa el volcado periódico.
+     *
+     * @return MetricasDao listo para compartir entre los DAOs instrumentados
+     */
+    private MetricasDao createMetricas() {
+        MetricasDao metricas = new MetricasDao();
+        DatabaseConfig config = DatabaseConnection.getConfig();
+        if (!config.getMetricasArchivo().isEmpty()) {
+            metricas.programarVolcado(Paths.get(config.getMetricasArchivo()), config.getMetricasPeriodoMs());
+        }
+        return metricas;
     }
 }
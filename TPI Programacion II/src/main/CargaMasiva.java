@@ -0,0 +1,212 @@
+package main;
+
+import config.DatabaseConnection;
+import config.TransactionManager;
+import dao.MascotaDaoJdbc;
+import dao.MicrochipDaoJdbc;
+import entities.Mascota;
+import entities.Microchip;
+import service.MascotaService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga masiva de datos de prueba desde Java (reemplaza a 03_carga_masiva_sql).
+ *
+ * Genera la misma distribución que el script SQL, pero leyendo los catálogos
+ * una sola vez en memoria en lugar de hacer subconsultas por fila:
+ * - microchip: código CHIP-{tag}-{n}, sedes de veterinaria_cat en ronda,
+ *   fecha de implantación escalonada y una observación cada 200 filas
+ * - mascota: nombre de cat_nombre_mascota, par especie/raza de raza+especie,
+ *   fecha de nacimiento escalonada y dueño "{cat_nombre} Apellido{n}"
+ *
+ * El rango 1..cantidad se parte en tramos, uno por hilo. Cada hilo usa su propia
+ * conexión del pool e inserta por lotes JDBC (MascotaService.insertarTodos),
+ * con un commit por bloque para no sostener transacciones gigantes.
+ *
+ * En modo "tolerante" cada bloque se importa fila por fila con savepoints
+ * (MascotaService.importar): las filas cuyo código ya existe se saltean y se
+ * cuentan como rechazadas en lugar de abortar el bloque. Sirve para completar
+ * una carga cortada repitiéndola con el mismo tag; es más lenta que por lotes.
+ *
+ * Uso: CargaMasiva [cantidad=200000] [hilos=4] [tag=CAAT1] [modo=lotes|tolerante]
+ * Los hilos no pueden superar pool.maxSize.
+ *
+ * @author Astrid
+ */
+public class CargaMasiva {
+
+    // Filas por transacción de cada hilo (cada una viaja en lotes de dao.batchSize)
+    private static final int FILAS_POR_COMMIT = 10_000;
+
+    private final List<String> nombresMascota;
+    private final List<String[]> especiesRazas;
+    private final List<String> nombresDuenio;
+    private final List<String> sedes;
+    private final MascotaService mascotaService;
+    private final LocalDate hoy = LocalDate.now();
+
+    private CargaMasiva(List<String> nombresMascota, List<String[]> especiesRazas,
+                        List<String> nombresDuenio, List<String> sedes) {
+        this.nombresMascota = nombresMascota;
+        this.especiesRazas = especiesRazas;
+        this.nombresDuenio = nombresDuenio;
+        this.sedes = sedes;
+        this.mascotaService = MascotaService.paraLotes(new MascotaDaoJdbc(), new MicrochipDaoJdbc());
+    }
+
+    public static void main(String[] args) {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String tag = args.length > 2 ? args[2] : "CAAT1";
+        String modo = args.length > 3 ? args[3] : "lotes";
+
+        if (cantidad <= 0 || hilos <= 0) {
+            System.err.println("La cantidad y los hilos deben ser mayores a 0.");
+            return;
+        }
+        if (!modo.equals("lotes") && !modo.equals("tolerante")) {
+            System.err.println("Modo desconocido: " + modo + " (lotes o tolerante).");
+            return;
+        }
+        if (hilos > DatabaseConnection.getConfig().getPoolMaxSize()) {
+            System.err.println("Hilos (" + hilos + ") mayor que pool.maxSize ("
+                    + DatabaseConnection.getConfig().getPoolMaxSize() + ").");
+            return;
+        }
+
+        try {
+            CargaMasiva carga = desdeCatalogos();
+            carga.ejecutar(cantidad, hilos, tag, modo.equals("tolerante"));
+        } catch (Exception e) {
+            System.err.println("Error en la carga masiva: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /** Lee los catálogos una sola vez (en el mismo orden de id que usa el script SQL). */
+    private static CargaMasiva desdeCatalogos() throws SQLException {
+        try (Connection c = DatabaseConnection.getConnection()) {
+            List<String> mascotas = leerColumna(c, "SELECT nombre FROM cat_nombre_mascota ORDER BY id");
+            List<String> duenios = leerColumna(c, "SELECT nombre FROM cat_nombre ORDER BY id");
+            List<String> sedes = leerColumna(c, "SELECT nombre FROM veterinaria_cat ORDER BY id");
+
+            List<String[]> razas = new ArrayList<>();
+            String sql = "SELECT e.nombre, r.nombre FROM raza r JOIN especie e ON e.id = r.especie_id ORDER BY r.id";
+            try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    razas.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+            }
+            if (mascotas.isEmpty() || duenios.isEmpty() || sedes.isEmpty() || razas.isEmpty()) {
+                throw new SQLException("Catálogos vacíos: ejecutar antes 02_catalogos.sql");
+            }
+            return new CargaMasiva(mascotas, razas, duenios, sedes);
+        }
+    }
+
+    private static List<String> leerColumna(Connection c, String sql) throws SQLException {
+        List<String> valores = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                valores.add(rs.getString(1));
+            }
+        }
+        return valores;
+    }
+
+    private void ejecutar(int cantidad, int hilos, String tag, boolean tolerante) throws Exception {
+        System.out.println("Cargando " + cantidad + " mascotas con microchip en " + hilos + " hilos"
+                + (tolerante ? " (tolerante a filas repetidas)..." : "..."));
+        AtomicLong insertadas = new AtomicLong();
+        AtomicLong rechazadas = new AtomicLong();
+        long inicio = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tramos = new ArrayList<>();
+            int porHilo = (cantidad + hilos - 1) / hilos;
+            for (int desde = 1; desde <= cantidad; desde += porHilo) {
+                int d = desde;
+                int h = Math.min(desde + porHilo - 1, cantidad);
+                tramos.add(pool.submit(() -> {
+                    cargarTramo(d, h, tag, tolerante, insertadas, rechazadas);
+                    return null;
+                }));
+            }
+            for (Future<?> tramo : tramos) {
+                tramo.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        long filas = insertadas.get() * 2; // cada mascota lleva su microchip
+        System.out.printf("Carga finalizada: %d mascotas + %d microchips en %.2f s (%.0f filas/s)%n",
+                insertadas.get(), insertadas.get(), segundos, filas / segundos);
+        if (tolerante) {
+            System.out.println("Filas rechazadas: " + rechazadas.get());
+        }
+        System.out.println(mascotaService.getEstadisticasImportacion());
+        System.out.println(TransactionManager.getEstadisticasReintentos());
+    }
+
+    /** Inserta las filas n = desde..hasta, con un commit cada FILAS_POR_COMMIT. */
+    private void cargarTramo(int desde, int hasta, String tag, boolean tolerante,
+                             AtomicLong insertadas, AtomicLong rechazadas) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int inicio = desde; inicio <= hasta; inicio += FILAS_POR_COMMIT) {
+                int fin = Math.min(inicio + FILAS_POR_COMMIT - 1, hasta);
+                int primera = inicio;
+                // TransactionManager sobre la misma conexión; no se cierra hasta el final del tramo.
+                // Los tramos en paralelo pueden chocar en los índices únicos: ante un deadlock
+                // se reintenta el bloque, regenerado en cada intento (ids sin asignar)
+                TransactionManager tx = new TransactionManager(conn);
+                int filas = tx.ejecutar(c -> {
+                    List<Mascota> bloque = new ArrayList<>(fin - primera + 1);
+                    for (int n = primera; n <= fin; n++) {
+                        bloque.add(generarMascota(n, tag));
+                    }
+                    return tolerante
+                            ? mascotaService.importar(bloque, tx).getImportadas().size()
+                            : mascotaService.insertarTodos(bloque, c).size();
+                });
+                insertadas.addAndGet(filas);
+                rechazadas.addAndGet(fin - primera + 1 - filas);
+            }
+        }
+    }
+
+    // Generación de filas con la misma distribución que 03_carga_masiva_sql
+
+    private Mascota generarMascota(int n, String tag) {
+        Microchip mc = new Microchip();
+        mc.setCodigo(String.format("CHIP-%s-%06d", tag, n));
+        LocalDate base = hoy.minusDays(3650).plusDays(n % 3650);
+        LocalDate implantacion = base.plusDays(60 + n % 200);
+        mc.setFechaImplantacion(implantacion.isAfter(hoy) ? hoy : implantacion);
+        mc.setVeterinaria(sedes.get((n - 1) % sedes.size()));
+        mc.setObservaciones(n % 200 == 0 ? "Control masivo" + n : null);
+
+        String[] especieRaza = especiesRazas.get((n - 1) % especiesRazas.size());
+        Mascota m = new Mascota();
+        m.setNombre(nombresMascota.get((n - 1) % nombresMascota.size()));
+        m.setEspecie(especieRaza[0]);
+        m.setRaza(especieRaza[1]);
+        m.setFechaNacimiento(base);
+        m.setDuenio(nombresDuenio.get(n % nombresDuenio.size()) + " Apellido" + String.format("%06d", n));
+        m.setMicrochip(mc);
+        return m;
+    }
+}
@@ -33,6 +33,11 @@ public class MenuDisplay {
         System.out.println("7. Actualizar Microchip");
         System.out.println("8. Buscar Microchip por ID");
         System.out.println("9. Eliminar Microchip");
+        System.out.println("10. Estadísticas de rendimiento");
+        System.out.println("11. Buscar Microchip por código");
+        System.out.println("12. Buscar Mascotas por dueño");
+        System.out.println("13. Autocompletar nombre de mascota / dueño");
+        System.out.println("14. Buscar dueños por parecido");
         System.out.println("0. Salir");
         System.out.print("Ingrese una opción: ");
     }
@@ -6,6 +6,10 @@ import entities.Microchip;
 import service.MascotaService;
 import service.MicrochipService;
 
+import dao.DiccionarioValores;
+import dao.MetricasDao;
+import dao.Pagina;
+
 import java.util.List;
 import java.util.Scanner;
 import java.util.Optional;
@@ -46,14 +50,31 @@ public class MenuHandler {
     private final MascotaService mascotaService;
     private final MicrochipService microchipService;
 
+    /**
+     * Métricas de latencia de los DAOs (opción 10).
+     */
+    private final MetricasDao metricas;
+
+    /**
+     * Mascotas por página en el listado (opción 2).
+     */
+    private static final int TAMANIO_PAGINA = 20;
+
+    /**
+     * Sugerencias por campo en el autocompletado (opción 13) y en la búsqueda de dueños (opción 14).
+     */
+    private static final int SUGERENCIAS = 10;
+
     /**
      * Constructor con inyección de dependencias.
      *
      * @param scanner          Scanner compartido
      * @param mascotaService   servicio de mascotas
      * @param microchipService servicio de microchips
+     * @param metricas         métricas de los DAOs instrumentados
      */
-    public MenuHandler(Scanner scanner, MascotaService mascotaService, MicrochipService microchipService) {
+    public MenuHandler(Scanner scanner, MascotaService mascotaService, MicrochipService microchipService,
+                       MetricasDao metricas) {
         if (scanner == null) {
             throw new IllegalArgumentException("Scanner no puede ser null");
         }
@@ -63,9 +84,13 @@ public class MenuHandler {
         if (microchipService == null) {
             throw new IllegalArgumentException("MicrochipService no puede ser null");
         }
+        if (metricas == null) {
+            throw new IllegalArgumentException("MetricasDao no puede ser null");
+        }
         this.scanner = scanner;
         this.mascotaService = mascotaService;
         this.microchipService = microchipService;
+        this.metricas = metricas;
     }
     
     // Opción 1: Crear Mascota (con microchip opcional)- CON TRANSACCIÓN
@@ -100,43 +125,83 @@ public class MenuHandler {
         }
     }
 
-    // Opción 2: Listar Mascotas
+    // Opción 2: Listar Mascotas (paginado por id, la tabla nunca se carga entera)
 
     public void listarMascotas() {
         try {
-            List<Mascota> mascotas = mascotaService.getAll();
+            paginarMascotas("LISTADO DE MASCOTAS",
+                    ultima -> mascotaService.getPagina(ultima == null ? 0 : ultima.getId(), TAMANIO_PAGINA));
+        } catch (Exception e) {
+            System.err.println("Error al listar mascotas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga la página que sigue a la última mascota mostrada (null para la primera).
+     * Cada listado arma su cursor con ella: el id, o el dueño y el id.
+     */
+    @FunctionalInterface
+    private interface CargadorPagina {
+        Pagina<Mascota> cargar(Mascota ultima) throws Exception;
+    }
+
+    /**
+     * Muestra las páginas de a una; Enter avanza y 'q' vuelve al menú.
+     */
+    private void paginarMascotas(String titulo, CargadorPagina cargador) throws Exception {
+        Pagina<Mascota> pagina = cargador.cargar(null);
 
-            if (mascotas.isEmpty()) {
-                System.out.println("No se encontraron mascotas.");
+        if (pagina.isEmpty()) {
+            System.out.println("No se encontraron mascotas.");
+            return;
+        }
+
+        System.out.println("\n=== " + titulo + " ===");
+        int numeroPagina = 1;
+        while (true) {
+            System.out.println("--- Página " + numeroPagina + " ---");
+            mostrarMascotas(pagina.getElementos());
+
+            if (!pagina.hayMas()) {
+                System.out.println("(Fin del listado)");
                 return;
             }
+            System.out.print("Enter para ver la página siguiente, 'q' para volver al menú: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            List<Mascota> mostradas = pagina.getElementos();
+            pagina = cargador.cargar(mostradas.get(mostradas.size() - 1));
+            numeroPagina++;
+        }
+    }
 
-            System.out.println("\n=== LISTADO DE MASCOTAS ===");
-            for (Mascota m : mascotas) {
-                /*System.out.print("ID: " + m.getId() +
-                        ", Nombre: " + m.getNombre() +
-                        ", Especie: " + m.getEspecie() +
-                        ", Raza: " + m.getRaza() +
-                        ", Dueño: " + m.getDuenio()+
-                        ", Eliminado: " + m.isEliminado() 
-                ); */
-                System.out.println(m.toString());
-                if (m.getMicrochip() != null) {
-                    /*System.out.println(" Microchip ID: " + m.getMicrochip().getId() +
-                            ", Código: " + m.getMicrochip().getCodigo() +
-                            ", Fecha de Implatación: " + m.getMicrochip().getFechaImplantacion() +
-                            ", Veterinaria: " + m.getMicrochip().getVeterinaria() +
-                            ", Observaciones: " + m.getMicrochip().getObservaciones() +
-                            ", Eliminado: " + m.getMicrochip().isEliminado() 
-                    );*/
-                    System.out.println(m.toString());
-                } else {
-                    System.out.println("Microchip: no asignado");
-                }
-                System.out.println();
+    /**
+     * Imprime un bloque de mascotas del listado.
+     */
+    private void mostrarMascotas(List<Mascota> mascotas) {
+        for (Mascota m : mascotas) {
+            /*System.out.print("ID: " + m.getId() +
+                    ", Nombre: " + m.getNombre() +
+                    ", Especie: " + m.getEspecie() +
+                    ", Raza: " + m.getRaza() +
+                    ", Dueño: " + m.getDuenio()+
+                    ", Eliminado: " + m.isEliminado() 
+            ); */
+            System.out.println(m.toString());
+            if (m.getMicrochip() != null) {
+                /*System.out.println(" Microchip ID: " + m.getMicrochip().getId() +
+                        ", Código: " + m.getMicrochip().getCodigo() +
+                        ", Fecha de Implatación: " + m.getMicrochip().getFechaImplantacion() +
+                        ", Veterinaria: " + m.getMicrochip().getVeterinaria() +
+                        ", Observaciones: " + m.getMicrochip().getObservaciones() +
+                        ", Eliminado: " + m.getMicrochip().isEliminado() 
+                );*/
+                System.out.println(m.getMicrochip().toString());
+            } else {
+                System.out.println("Microchip: no asignado");
             }
-        } catch (Exception e) {
-            System.err.println("Error al listar mascotas: " + e.getMessage());
+            System.out.println();
         }
     }
 
@@ -351,19 +416,21 @@ public class MenuHandler {
                 System.out.println("Microchip no encontrado.");
                 return;
             }
-
-            Microchip mc = op.get();
-            System.out.println("ID: " + mc.getId());
-            System.out.println("Código: " + mc.getCodigo());
-            System.out.println("Fecha de implantación: " + mc.getFechaImplantacion());
-            System.out.println("Veterinaria: " + mc.getVeterinaria());
-            System.out.println("Observaciones: " + mc.getObservaciones());
+            mostrarMicrochip(op.get());
 
         } catch (Exception e) {
             System.err.println("Error al buscar microchip: " + e.getMessage());
         }
     }
 
+    private void mostrarMicrochip(Microchip mc) {
+        System.out.println("ID: " + mc.getId());
+        System.out.println("Código: " + mc.getCodigo());
+        System.out.println("Fecha de implantación: " + mc.getFechaImplantacion());
+        System.out.println("Veterinaria: " + mc.getVeterinaria());
+        System.out.println("Observaciones: " + mc.getObservaciones());
+    }
+
    
     // Opción 9: Eliminar Microchip
   
@@ -381,6 +448,105 @@ public class MenuHandler {
     }
 
     
+    // Opción 10: Estadísticas de rendimiento (solo lectura, no toca la BD)
+
+    public void mostrarEstadisticas() {
+        System.out.println("\n=== ESTADÍSTICAS DE RENDIMIENTO ===");
+        System.out.println("--- Operaciones de DAO ---");
+        System.out.print(metricas.reporte());
+        System.out.println("--- Cachés ---");
+        System.out.println(mascotaService.getEstadisticasCache());
+        System.out.println(microchipService.getEstadisticasCache());
+        System.out.println(microchipService.getEstadisticasIndice());
+        System.out.println(mascotaService.getEstadisticasAutocompletado());
+        System.out.println(mascotaService.getEstadisticasBusquedaFonetica());
+        System.out.println("--- Catálogos y diccionarios de especie/raza/veterinaria ---");
+        System.out.println(mascotaService.getEstadisticasCatalogos());
+        System.out.println(DiccionarioValores.estadisticas());
+        System.out.println("--- Transacciones (reintentos por deadlock / lock wait timeout) ---");
+        System.out.println(TransactionManager.getEstadisticasReintentos());
+        System.out.println("--- Pool de conexiones ---");
+        System.out.println(DatabaseConnection.getPool());
+    }
+
+    // Opción 11: Buscar Microchip por código
+
+    public void buscarMicrochipPorCodigo() {
+        try {
+            System.out.print("Código del microchip: ");
+            String codigo = scanner.nextLine().trim();
+
+            Optional<Microchip> op = microchipService.buscarPorCodigo(codigo);
+            if (op.isEmpty()) {
+                System.out.println("Microchip no encontrado.");
+                return;
+            }
+            mostrarMicrochip(op.get());
+
+        } catch (Exception e) {
+            System.err.println("Error al buscar microchip: " + e.getMessage());
+        }
+    }
+
+    // Opción 12: Buscar Mascotas por dueño (prefijo, sin distinguir mayúsculas)
+
+    public void buscarMascotasPorDuenio() {
+        try {
+            System.out.print("Dueño (nombre o comienzo del nombre): ");
+            String duenio = scanner.nextLine().trim();
+            paginarMascotas("MASCOTAS DE '" + duenio + "'",
+                    ultima -> ultima == null
+                            ? mascotaService.buscarPorDuenio(duenio, null, 0, TAMANIO_PAGINA)
+                            : mascotaService.buscarPorDuenio(duenio, ultima.getDuenio(), ultima.getId(),
+                                    TAMANIO_PAGINA));
+        } catch (Exception e) {
+            System.err.println("Error al buscar mascotas: " + e.getMessage());
+        }
+    }
+
+    // Opción 13: Autocompletar nombre de mascota / dueño (en memoria, no toca la BD)
+
+    public void autocompletar() {
+        try {
+            System.out.print("Comienzo del nombre de la mascota o del dueño: ");
+            String prefijo = scanner.nextLine().trim();
+
+            List<String> nombres = mascotaService.autocompletarNombres(prefijo, SUGERENCIAS);
+            List<String> duenios = mascotaService.autocompletarDuenios(prefijo, SUGERENCIAS);
+            if (nombres.isEmpty() && duenios.isEmpty()) {
+                System.out.println("Sin sugerencias.");
+                return;
+            }
+            System.out.println("Mascotas: " + (nombres.isEmpty() ? "-" : String.join(", ", nombres)));
+            System.out.println("Dueños:   " + (duenios.isEmpty() ? "-" : String.join(", ", duenios)));
+
+        } catch (Exception e) {
+            System.err.println("Error al autocompletar: " + e.getMessage());
+        }
+    }
+
+    // Opción 14: Buscar dueños por parecido (tolera errores de ortografía y acentos)
+
+    public void buscarDueniosParecidos() {
+        try {
+            System.out.print("Nombre del dueño (aunque esté mal escrito): ");
+            String texto = scanner.nextLine().trim();
+
+            List<String> duenios = mascotaService.buscarDueniosParecidos(texto, SUGERENCIAS);
+            if (duenios.isEmpty()) {
+                System.out.println("No se encontraron dueños parecidos.");
+                return;
+            }
+            System.out.println("Dueños parecidos (buscar sus mascotas con la opción 12):");
+            for (String duenio : duenios) {
+                System.out.println(" - " + duenio);
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error al buscar dueños: " + e.getMessage());
+        }
+    }
+
     // Métodos auxiliares (creación / actualización de datos)
  
 
@@ -0,0 +1,63 @@
+package service;
+
+import entities.Mascota;
+import java.util.List;
+
+/**
+ * Autocompletado por prefijo de nombres de mascota y de dueños para el mostrador.
+ *
+ * Se carga recorriendo la tabla en streaming al iniciar (MascotaService.cargarAutocompletado)
+ * y MascotaService lo actualiza en cada alta, modificación, baja y recuperación.
+ * Deshabilitado (cache.autocompletado=false, o en procesos como CargaMasiva) no guarda nada.
+ *
+ * @author Astrid
+ */
+public class AutocompletadoMascotas {
+
+    private final boolean habilitado;
+    private final IndiceAutocompletado nombres = new IndiceAutocompletado();
+    private final IndiceAutocompletado duenios = new IndiceAutocompletado();
+
+    public AutocompletadoMascotas(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void registrar(Mascota m) {
+        if (!habilitado || m.getId() == null) {
+            return;
+        }
+        nombres.registrar(m.getId(), m.getNombre());
+        duenios.registrar(m.getId(), m.getDuenio());
+    }
+
+    public void quitar(long id) {
+        if (habilitado) {
+            nombres.quitar(id);
+            duenios.quitar(id);
+        }
+    }
+
+    public void limpiar() {
+        nombres.limpiar();
+        duenios.limpiar();
+    }
+
+    public List<String> completarNombres(String prefijo, int k) {
+        return nombres.completar(prefijo, k);
+    }
+
+    public List<String> completarDuenios(String prefijo, int k) {
+        return duenios.completar(prefijo, k);
+    }
+
+    @Override
+    public String toString() {
+        return habilitado
+                ? "AutocompletadoMascotas{nombres=" + nombres.getTamanio() + ", duenios=" + duenios.getTamanio() + "}"
+                : "AutocompletadoMascotas{deshabilitado}";
+    }
+}
@@ -0,0 +1,324 @@
+package service;
+
+import entities.Mascota;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Búsqueda aproximada de dueños tolerante a errores de ortografía ("Gonzales" / "González").
+ *
+ * Cada palabra del dueño se indexa por su clave fonética en español (sin acentos ni
+ * mayúsculas; z/ce/ci → s, v/w → b, ll → y, h muda, qu/c/k → k, ge/gi → j, letras
+ * dobles colapsadas). Para cada palabra buscada se toman las palabras indexadas con
+ * su misma clave (sin recorrer la tabla), y un dueño es candidato si tiene una de
+ * ellas por cada palabra buscada. Los candidatos se ordenan por la distancia de
+ * edición entre lo escrito y lo guardado, acotada a {@link #limite(int)} por palabra.
+ *
+ * Los mapas son concurrentes para que MascotaService lo cargue en paralelo por
+ * tramos de id; las escrituras posteriores lo mantienen al día.
+ *
+ * @author Astrid
+ */
+public class BusquedaFoneticaDuenios {
+
+    private final boolean habilitado;
+    // clave fonética → palabras distintas con esa clave (pocas por clave)
+    private final ConcurrentHashMap<String, Set<String>> palabrasPorClave = new ConcurrentHashMap<>();
+    // palabra → mascotas cuyo dueño la contiene
+    private final ConcurrentHashMap<String, Set<Long>> idsPorPalabra = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> duenioPorId = new ConcurrentHashMap<>();
+
+    public BusquedaFoneticaDuenios(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public void registrar(Mascota m) {
+        if (m.getId() != null) {
+            registrar(m.getId(), m.getDuenio());
+        }
+    }
+
+    /** Registra o reemplaza el dueño de una mascota (seguro entre hilos). */
+    public void registrar(long id, String duenio) {
+        if (!habilitado) {
+            return;
+        }
+        if (duenio == null || duenio.isBlank()) {
+            quitar(id);
+            return;
+        }
+        // compute bloquea solo este id: cargas en paralelo de ids distintos no se esperan
+        duenioPorId.compute(id, (k, anterior) -> {
+            if (duenio.equals(anterior)) {
+                return anterior;
+            }
+            if (anterior != null) {
+                desindexar(id, anterior);
+            }
+            for (String palabra : new HashSet<>(palabras(duenio))) {
+                // Dentro de compute: no se pierde el alta si otro hilo vacía y borra el conjunto
+                idsPorPalabra.compute(palabra, (p, ids) -> {
+                    if (ids == null) {
+                        ids = ConcurrentHashMap.newKeySet();
+                        palabrasPorClave.compute(clave(p), (c, ps) -> {
+                            Set<String> conjunto = ps != null ? ps : ConcurrentHashMap.newKeySet();
+                            conjunto.add(p);
+                            return conjunto;
+                        });
+                    }
+                    ids.add(id);
+                    return ids;
+                });
+            }
+            return duenio;
+        });
+    }
+
+    public void quitar(long id) {
+        if (!habilitado) {
+            return;
+        }
+        duenioPorId.computeIfPresent(id, (k, anterior) -> {
+            desindexar(id, anterior);
+            return null;
+        });
+    }
+
+    public void limpiar() {
+        palabrasPorClave.clear();
+        idsPorPalabra.clear();
+        duenioPorId.clear();
+    }
+
+    private void desindexar(long id, String duenio) {
+        for (String palabra : new HashSet<>(palabras(duenio))) {
+            idsPorPalabra.computeIfPresent(palabra, (p, ids) -> {
+                ids.remove(id);
+                if (!ids.isEmpty()) {
+                    return ids;
+                }
+                palabrasPorClave.computeIfPresent(clave(p), (c, ps) -> {
+                    ps.remove(p);
+                    return ps.isEmpty() ? null : ps;
+                });
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Hasta {@code k} dueños distintos parecidos al texto, del más al menos parecido
+     * (suma de distancias por palabra; a igual distancia, orden alfabético).
+     */
+    public List<String> buscar(String texto, int k) {
+        List<String> buscadas = palabras(texto);
+        if (buscadas.isEmpty() || k <= 0) {
+            return Collections.emptyList();
+        }
+        // Por cada palabra buscada: palabra indexada con su clave → distancia
+        // (las mascotas de cada una se leen de idsPorPalabra; usar los conjuntos como
+        // clave costaría un hash de todo el conjunto por put)
+        List<Map<String, Integer>> coincidencias = new ArrayList<>();
+        for (String buscada : buscadas) {
+            int limite = limite(buscada.length());
+            Map<String, Integer> porPalabra = new HashMap<>();
+            for (String palabra : palabrasPorClave.getOrDefault(clave(buscada), Collections.emptySet())) {
+                if (idsPorPalabra.containsKey(palabra)) {
+                    porPalabra.put(palabra, levenshtein(buscada, palabra, limite));
+                }
+            }
+            if (porPalabra.isEmpty()) {
+                return Collections.emptyList();
+            }
+            coincidencias.add(porPalabra);
+        }
+        // Se parte de la palabra con menos mascotas y se descartan las que no tienen las demás
+        coincidencias.sort(Comparator.comparingInt(this::cantidadIds));
+        Map<Long, Integer> puntajes = new HashMap<>();
+        coincidencias.get(0).forEach((palabra, d) -> ids(palabra).forEach(id -> puntajes.merge(id, d, Math::min)));
+        for (Map<String, Integer> porPalabra : coincidencias.subList(1, coincidencias.size())) {
+            puntajes.entrySet().removeIf(e -> {
+                int mejor = Integer.MAX_VALUE;
+                for (Map.Entry<String, Integer> p : porPalabra.entrySet()) {
+                    if (p.getValue() < mejor && ids(p.getKey()).contains(e.getKey())) {
+                        mejor = p.getValue();
+                    }
+                }
+                if (mejor == Integer.MAX_VALUE) {
+                    return true;
+                }
+                e.setValue(e.getValue() + mejor);
+                return false;
+            });
+        }
+        // Mejor puntaje por dueño distinto; un montículo de tamaño k evita ordenar todo
+        Map<String, Integer> porDuenio = new HashMap<>();
+        puntajes.forEach((id, d) -> {
+            String duenio = duenioPorId.get(id);
+            if (duenio != null) {
+                porDuenio.merge(duenio, d, Math::min);
+            }
+        });
+        Comparator<Map.Entry<String, Integer>> orden = Map.Entry.<String, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER));
+        PriorityQueue<Map.Entry<String, Integer>> mejores = new PriorityQueue<>(orden.reversed());
+        for (Map.Entry<String, Integer> e : porDuenio.entrySet()) {
+            mejores.add(e);
+            if (mejores.size() > k) {
+                mejores.poll();
+            }
+        }
+        List<String> resultado = new ArrayList<>(mejores.size());
+        while (!mejores.isEmpty()) {
+            resultado.add(mejores.poll().getKey());
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /** Cantidad de mascotas indexadas. */
+    public int getTamanio() {
+        return duenioPorId.size();
+    }
+
+    private int cantidadIds(Map<String, Integer> porPalabra) {
+        int total = 0;
+        for (String palabra : porPalabra.keySet()) {
+            total += ids(palabra).size();
+        }
+        return total;
+    }
+
+    // Mascotas de una palabra (vacío si otro hilo la desindexó mientras tanto)
+    private Set<Long> ids(String palabra) {
+        return idsPorPalabra.getOrDefault(palabra, Collections.emptySet());
+    }
+
+    /** Ediciones toleradas según el largo de la palabra buscada. */
+    static int limite(int largo) {
+        return largo <= 4 ? 1 : largo <= 8 ? 2 : 3;
+    }
+
+    // Levenshtein con corte: devuelve tope + 1 apenas se sabe que la distancia lo supera
+    private static int levenshtein(String a, String b, int tope) {
+        if (Math.abs(a.length() - b.length()) > tope) {
+            return tope + 1;
+        }
+        int[] previa = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previa[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, previa[j] + 1), previa[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > tope) {
+                return tope + 1;
+            }
+            int[] t = previa;
+            previa = actual;
+            actual = t;
+        }
+        return Math.min(previa[b.length()], tope + 1);
+    }
+
+    // Palabras normalizadas (minúsculas, sin acentos) de un nombre
+    private static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        if (texto == null) {
+            return palabras;
+        }
+        for (String palabra : IndiceAutocompletado.normalizar(texto).split("[^a-z0-9]+")) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    /** Clave fonética en español de una palabra ya normalizada. */
+    static String clave(String palabra) {
+        StringBuilder sb = new StringBuilder(palabra.length());
+        int n = palabra.length();
+        for (int i = 0; i < n; i++) {
+            char c = palabra.charAt(i);
+            char sig = i + 1 < n ? palabra.charAt(i + 1) : 0;
+            char sonido;
+            switch (c) {
+                case 'h' -> {
+                    continue; // muda ("ch" se resuelve en la 'c')
+                }
+                case 'c' -> {
+                    if (sig == 'h') {
+                        sonido = 'x';
+                        i++;
+                    } else {
+                        sonido = sig == 'e' || sig == 'i' ? 's' : 'k';
+                    }
+                }
+                case 'q' -> {
+                    sonido = 'k';
+                    if (sig == 'u') {
+                        i++;
+                    }
+                }
+                case 'g' -> {
+                    if (sig == 'e' || sig == 'i') {
+                        sonido = 'j';
+                    } else {
+                        sonido = 'g';
+                        // "gue"/"gui": la u no suena
+                        if (sig == 'u' && i + 2 < n && (palabra.charAt(i + 2) == 'e' || palabra.charAt(i + 2) == 'i')) {
+                            i++;
+                        }
+                    }
+                }
+                case 'z' -> sonido = 's';
+                case 'v', 'w' -> sonido = 'b';
+                case 'l' -> {
+                    if (sig == 'l') {
+                        sonido = 'y';
+                        i++;
+                    } else {
+                        sonido = 'l';
+                    }
+                }
+                case 'y' -> sonido = esVocal(sig) ? 'y' : 'i';
+                default -> sonido = c;
+            }
+            if (sb.length() == 0 || sb.charAt(sb.length() - 1) != sonido) {
+                sb.append(sonido);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean esVocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    @Override
+    public String toString() {
+        return habilitado
+                ? "BusquedaFoneticaDuenios{mascotas=" + getTamanio() + ", palabras=" + idsPorPalabra.size()
+                        + ", claves=" + palabrasPorClave.size() + "}"
+                : "BusquedaFoneticaDuenios{deshabilitado}";
+    }
+}
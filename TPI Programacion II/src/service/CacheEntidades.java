@@ -0,0 +1,164 @@
+package service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché en memoria de lectura (read-through) para búsquedas por id.
+ *
+ * - Acotada: desaloja la entrada usada hace más tiempo (LRU) al superar la capacidad
+ * - TTL: una entrada vencida se trata como fallo y se vuelve a leer de la BD
+ * - Métricas de aciertos, fallos y desalojos
+ * - Guarda y entrega copias, así lo que el menú modifica antes de guardar
+ *   nunca ensucia la versión cacheada
+ *
+ * Los services la invalidan en cada escritura (actualizar, eliminar, recuperar).
+ * No se cachean ausencias: un id inexistente siempre consulta la BD.
+ *
+ * @param <T> tipo de entidad cacheada
+ * @author Astrid
+ */
+public class CacheEntidades<T> {
+
+    private final int capacidad;
+    private final long ttlNanos;
+    private final UnaryOperator<T> copiador;
+    private final LinkedHashMap<Long, Entrada<T>> entradas;
+
+    // Cambia en cada invalidación: una carga que empezó antes no puede dejar un valor viejo
+    private long generacion;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+
+    /**
+     * @param capacidad cantidad máxima de entidades en memoria
+     * @param ttlMs     vida de cada entrada en milisegundos (0 = sin vencimiento)
+     * @param copiador  crea una copia independiente de la entidad
+     */
+    public CacheEntidades(int capacidad, long ttlMs, UnaryOperator<T> copiador) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser mayor a 0");
+        }
+        if (copiador == null) {
+            throw new IllegalArgumentException("El copiador no puede ser null");
+        }
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.copiador = copiador;
+        // accessOrder = true: cada get() mueve la entrada al final (orden LRU)
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada<T>> eldest) {
+                if (size() > CacheEntidades.this.capacidad) {
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve la entidad cacheada o la carga con {@code cargador} y la guarda.
+     */
+    public Optional<T> obtener(long id, LongFunction<Optional<T>> cargador) {
+        long generacionInicial;
+        synchronized (this) {
+            Entrada<T> e = entradas.get(id);
+            if (e != null && !vencida(e)) {
+                aciertos++;
+                return Optional.of(copiador.apply(e.valor));
+            }
+            if (e != null) {
+                entradas.remove(id);
+            }
+            fallos++;
+            generacionInicial = generacion;
+        }
+
+        // La consulta a la BD se hace fuera del lock
+        Optional<T> cargado = cargador.apply(id);
+        if (cargado.isPresent()) {
+            synchronized (this) {
+                if (generacion == generacionInicial) {
+                    entradas.put(id, new Entrada<>(copiador.apply(cargado.get())));
+                }
+            }
+        }
+        return cargado;
+    }
+
+    /** Copia cacheada sin contar acierto/fallo ni cambiar el orden LRU. */
+    public synchronized Optional<T> espiar(long id) {
+        Entrada<T> e = entradas.get(id);
+        return e == null ? Optional.empty() : Optional.of(copiador.apply(e.valor));
+    }
+
+    public synchronized void invalidar(long id) {
+        generacion++;
+        entradas.remove(id);
+    }
+
+    /** Invalida todas las entradas que cumplan la condición (recorre la caché). */
+    public synchronized void invalidarSi(Predicate<? super T> condicion) {
+        generacion++;
+        Iterator<Entrada<T>> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            if (condicion.test(it.next().valor)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void limpiar() {
+        generacion++;
+        entradas.clear();
+    }
+
+    private boolean vencida(Entrada<T> e) {
+        return ttlNanos > 0 && System.nanoTime() - e.cargadaEn > ttlNanos;
+    }
+
+    // Métricas
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    public synchronized int getTamanio() {
+        return entradas.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = aciertos + fallos;
+        double tasa = total == 0 ? 0 : 100.0 * aciertos / total;
+        return String.format("tamaño=%d/%d, aciertos=%d, fallos=%d, tasa=%.1f%%, desalojos=%d",
+                entradas.size(), capacidad, aciertos, fallos, tasa, desalojos);
+    }
+
+    private static final class Entrada<T> {
+        private final T valor;
+        private final long cargadaEn = System.nanoTime();
+
+        private Entrada(T valor) {
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package service;
+
+import dao.CatalogoDaoJdbc;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogos de especie/raza y de veterinarias en memoria, para validar las altas
+ * y modificaciones sin consultar la BD en cada una.
+ *
+ * Cada carga arma mapas inmutables nuevos y los publica de una vez (campo volatile):
+ * las validaciones leen siempre una versión completa, sin bloqueos, mientras un hilo
+ * de fondo refresca los catálogos cada cache.catalogosRefrescoMs.
+ *
+ * Las claves se comparan sin mayúsculas ni acentos, igual que la collation
+ * utf8mb4_unicode_ci del esquema, y se devuelve el nombre tal como figura en el
+ * catálogo ("perros" → "Perros"). Mientras no se haya cargado ninguna versión
+ * (BD no disponible al iniciar) no se valida contra el catálogo.
+ *
+ * @author Astrid
+ */
+public class CatalogoService {
+
+    private final CatalogoDaoJdbc catalogoDao;
+    private volatile Catalogos actuales;
+    private ScheduledExecutorService refresco;
+
+    public CatalogoService(CatalogoDaoJdbc catalogoDao) {
+        if (catalogoDao == null) {
+            throw new IllegalArgumentException("CatalogoDaoJdbc no puede ser null");
+        }
+        this.catalogoDao = catalogoDao;
+    }
+
+    /** Lee los catálogos de la BD y reemplaza la versión en memoria. */
+    public void cargar() {
+        Map<String, String> especies = new HashMap<>();
+        Map<String, Map<String, String>> razas = new HashMap<>();
+        for (String[] par : catalogoDao.leerEspeciesYRazas()) {
+            String especie = clave(par[0]);
+            especies.put(especie, par[0]);
+            Map<String, String> deLaEspecie = razas.computeIfAbsent(especie, e -> new HashMap<>());
+            if (par[1] != null) {
+                deLaEspecie.put(clave(par[1]), par[1]);
+            }
+        }
+        Map<String, String> veterinarias = new HashMap<>();
+        for (String nombre : catalogoDao.leerVeterinarias()) {
+            veterinarias.put(clave(nombre), nombre);
+        }
+        Map<String, Map<String, String>> razasInmutables = new HashMap<>();
+        razas.forEach((especie, deLaEspecie) -> razasInmutables.put(especie, Map.copyOf(deLaEspecie)));
+        actuales = new Catalogos(Map.copyOf(especies), Map.copyOf(razasInmutables),
+                Map.copyOf(veterinarias), System.currentTimeMillis());
+    }
+
+    /**
+     * Programa la recarga periódica en un hilo daemon. Si una recarga falla se
+     * conserva la versión anterior y se reintenta en el período siguiente.
+     */
+    public synchronized void iniciarRefresco(long periodoMs) {
+        if (periodoMs <= 0 || refresco != null) {
+            return;
+        }
+        refresco = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vet-catalogos-refresco");
+            t.setDaemon(true);
+            return t;
+        });
+        refresco.scheduleWithFixedDelay(() -> {
+            try {
+                cargar();
+            } catch (RuntimeException e) {
+                System.err.println("No se pudieron refrescar los catálogos: " + e.getMessage());
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void detenerRefresco() {
+        if (refresco != null) {
+            refresco.shutdownNow();
+            refresco = null;
+        }
+    }
+
+    public boolean isCargado() {
+        return actuales != null;
+    }
+
+    /**
+     * Nombre de la especie como figura en el catálogo.
+     * @throws IllegalArgumentException si la especie no está en el catálogo
+     */
+    public String validarEspecie(String especie) {
+        Catalogos c = actuales;
+        if (c == null || especie == null) {
+            return especie;
+        }
+        String nombre = c.especies.get(clave(especie));
+        if (nombre == null) {
+            throw new IllegalArgumentException("Especie inexistente en el catálogo: " + especie.trim()
+                    + " (válidas: " + String.join(", ", c.especies.values()) + ")");
+        }
+        return nombre;
+    }
+
+    /**
+     * Nombre de la raza como figura en el catálogo (la raza es opcional: null queda null).
+     * @throws IllegalArgumentException si la raza no pertenece a la especie
+     */
+    public String validarRaza(String especie, String raza) {
+        Catalogos c = actuales;
+        if (c == null || especie == null || raza == null) {
+            return raza;
+        }
+        Map<String, String> deLaEspecie = c.razas.getOrDefault(clave(especie), Map.of());
+        if (deLaEspecie.isEmpty()) {
+            return raza; // especie sin razas en el catálogo: se acepta la que se ingrese
+        }
+        String nombre = deLaEspecie.get(clave(raza));
+        if (nombre == null) {
+            throw new IllegalArgumentException("La raza " + raza.trim() + " no corresponde a la especie "
+                    + especie.trim() + " (válidas: " + String.join(", ", deLaEspecie.values()) + ")");
+        }
+        return nombre;
+    }
+
+    /**
+     * Nombre de la veterinaria como figura en el catálogo.
+     * @throws IllegalArgumentException si la veterinaria no está en el catálogo
+     */
+    public String validarVeterinaria(String veterinaria) {
+        Catalogos c = actuales;
+        if (c == null || veterinaria == null) {
+            return veterinaria;
+        }
+        String nombre = c.veterinarias.get(clave(veterinaria));
+        if (nombre == null) {
+            throw new IllegalArgumentException("Veterinaria inexistente en el catálogo: " + veterinaria.trim()
+                    + " (válidas: " + String.join(", ", c.veterinarias.values()) + ")");
+        }
+        return nombre;
+    }
+
+    // Misma equivalencia que utf8mb4_unicode_ci: sin mayúsculas, acentos ni espacios de más
+    private static String clave(String nombre) {
+        return IndiceAutocompletado.normalizar(nombre);
+    }
+
+    @Override
+    public String toString() {
+        Catalogos c = actuales;
+        if (c == null) {
+            return "CatalogoService{sin cargar}";
+        }
+        int razas = 0;
+        for (Map<String, String> deLaEspecie : c.razas.values()) {
+            razas += deLaEspecie.size();
+        }
+        return "CatalogoService{especies=" + c.especies.size() + ", razas=" + razas
+                + ", veterinarias=" + c.veterinarias.size()
+                + ", cargadoHaceMs=" + (System.currentTimeMillis() - c.cargadoEn) + "}";
+    }
+
+    /** Versión inmutable de los catálogos: clave normalizada → nombre del catálogo. */
+    private static final class Catalogos {
+        private final Map<String, String> especies;
+        private final Map<String, Map<String, String>> razas;
+        private final Map<String, String> veterinarias;
+        private final long cargadoEn;
+
+        private Catalogos(Map<String, String> especies, Map<String, Map<String, String>> razas,
+                          Map<String, String> veterinarias, long cargadoEn) {
+            this.especies = especies;
+            this.razas = razas;
+            this.veterinarias = veterinarias;
+            this.cargadoEn = cargadoEn;
+        }
+    }
+}
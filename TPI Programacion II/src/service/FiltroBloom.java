@@ -0,0 +1,110 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de cadenas: responde "seguro que no está" o "puede estar".
+ *
+ * Se dimensiona con la cantidad esperada de elementos y la tasa de falsos positivos
+ * buscada (m = -n·ln p / ln²2 bits, k = m/n·ln 2 funciones de hash). Las k posiciones
+ * salen de dos hashes de 64 bits (h1 + i·h2, Kirsch-Mitzenmacher).
+ * Admite agregar y consultar desde varios hilos a la vez (bits en un AtomicLongArray).
+ */
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+    private final long capacidad;
+    private final LongAdder elementos = new LongAdder();
+
+    FiltroBloom(long capacidad, double tasaFalsosPositivos) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del filtro debe ser mayor a 0");
+        }
+        if (tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        int palabras = (int) Math.min(Integer.MAX_VALUE, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = (long) palabras * 64;
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * ln2));
+        this.capacidad = capacidad;
+    }
+
+    void agregar(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9e3779b97f4a7c15L) | 1; // nunca 0: las k posiciones no coinciden todas
+        for (int i = 0; i < cantidadHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            while (((actual = bits.get(palabra)) & mascara) == 0
+                    && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                // otro hilo cambió la palabra: se reintenta
+            }
+        }
+        elementos.increment();
+    }
+
+    /** false: seguro que no se agregó. true: puede haberse agregado (hay que confirmar). */
+    boolean puedeContener(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9e3779b97f4a7c15L) | 1; // nunca 0: las k posiciones no coinciden todas
+        for (int i = 0; i < cantidadHashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getElementos() {
+        return elementos.sum();
+    }
+
+    long getCapacidad() {
+        return capacidad;
+    }
+
+    long getMemoriaBytes() {
+        return cantidadBits / 8;
+    }
+
+    /** Tasa de falsos positivos esperada con los elementos actuales: (1 - e^(-k·n/m))^k. */
+    double getTasaFalsosPositivosEstimada() {
+        return Math.pow(1 - Math.exp(-cantidadHashes * (double) getElementos() / cantidadBits), cantidadHashes);
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    // Finalizador de MurmurHash3: reparte los bits del hash
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FiltroBloom{elementos=%d, capacidad=%d, hashes=%d, memoria=%d KB, fpEstimada=%.4f%%}",
+                getElementos(), capacidad, cantidadHashes, getMemoriaBytes() / 1024,
+                getTasaFalsosPositivosEstimada() * 100);
+    }
+}
@@ -2,6 +2,8 @@ package service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import dao.Pagina;
 /**
  *
  * @author Astrid
@@ -17,4 +19,10 @@ public interface GenericService<T> {
     Optional<T> getById(long id) throws Exception;
     
     List<T> getAll() throws Exception;
+
+    // Recorre todas las entidades activas sin cargarlas juntas en memoria
+    long recorrerTodos(Consumer<? super T> consumidor) throws Exception;
+
+    // Página de hasta 'tamanio' entidades con id mayor a 'despuesDeId' (0 para la primera)
+    Pagina<T> getPagina(long despuesDeId, int tamanio) throws Exception;
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos sobre un campo de texto (un valor por id).
+ *
+ * Las claves se guardan ordenadas (ConcurrentSkipListMap) como "normalizado\0original":
+ * completar un prefijo es una búsqueda binaria hasta el primer candidato más
+ * recorrer k claves, O(log n + k), y cada alta o baja es O(log n), así el índice
+ * se mantiene con cada escritura sin reconstruirse.
+ * La normalización ignora mayúsculas, acentos y espacios repetidos.
+ */
+final class IndiceAutocompletado {
+
+    private static final char SEPARADOR = '\u0000';
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    // clave → cantidad de ids con ese valor
+    private final ConcurrentSkipListMap<String, Integer> claves = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, String> clavePorId = new ConcurrentHashMap<>();
+
+    /** Registra o reemplaza el valor del id; un valor vacío lo saca del índice. */
+    synchronized void registrar(long id, String valor) {
+        if (valor == null || valor.isBlank()) {
+            quitar(id);
+            return;
+        }
+        String nueva = normalizar(valor) + SEPARADOR + valor.trim();
+        String anterior = clavePorId.put(id, nueva);
+        if (nueva.equals(anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            descontar(anterior);
+        }
+        claves.merge(nueva, 1, Integer::sum);
+    }
+
+    synchronized void quitar(long id) {
+        String anterior = clavePorId.remove(id);
+        if (anterior != null) {
+            descontar(anterior);
+        }
+    }
+
+    synchronized void limpiar() {
+        claves.clear();
+        clavePorId.clear();
+    }
+
+    private void descontar(String clave) {
+        claves.computeIfPresent(clave, (k, cantidad) -> cantidad > 1 ? cantidad - 1 : null);
+    }
+
+    /** Hasta {@code k} valores distintos que empiezan con el prefijo, en orden alfabético. */
+    List<String> completar(String prefijo, int k) {
+        String desde = normalizar(prefijo);
+        List<String> resultado = new ArrayList<>(k);
+        for (String clave : claves.subMap(desde, true, desde + Character.MAX_VALUE, false).keySet()) {
+            resultado.add(clave.substring(clave.indexOf(SEPARADOR) + 1));
+            if (resultado.size() == k) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    /** Cantidad de valores distintos. */
+    int getTamanio() {
+        return claves.size();
+    }
+
+    /** Minúsculas, sin acentos ni diéresis y con los espacios colapsados. */
+    static String normalizar(String texto) {
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
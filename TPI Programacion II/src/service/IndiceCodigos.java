@@ -0,0 +1,79 @@
+package service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice en memoria codigo → id de los microchips activos.
+ *
+ * Resuelve un escaneo de chip sin ir a la BD: con el id se lee de CacheEntidades.
+ * Es solo una pista: MicrochipService confirma que el chip encontrado tenga ese código
+ * y ante un fallo consulta la BD, así un índice incompleto (altas hechas por otro
+ * proceso, ej. CargaMasiva) o desactivado nunca da un resultado incorrecto.
+ *
+ * Los códigos se comparan sin distinguir mayúsculas, igual que la restricción
+ * UNIQUE de MySQL con la collation por defecto.
+ *
+ * @author Astrid
+ */
+public class IndiceCodigos {
+
+    private final boolean habilitado;
+    private final Map<String, Long> idPorCodigo = new HashMap<>();
+    // Inverso, para sacar el código viejo cuando un chip cambia de código o se elimina
+    private final Map<Long, String> codigoPorId = new HashMap<>();
+
+    /** @param habilitado con false el índice no guarda nada y toda búsqueda va a la BD */
+    public IndiceCodigos(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /** Id registrado para el código, o null si no está en el índice. */
+    public synchronized Long obtener(String codigo) {
+        return habilitado ? idPorCodigo.get(clave(codigo)) : null;
+    }
+
+    /** Registra (o reemplaza) el código de un chip. */
+    public synchronized void registrar(String codigo, long id) {
+        if (!habilitado || codigo == null) {
+            return;
+        }
+        String nueva = clave(codigo);
+        String anterior = codigoPorId.put(id, nueva);
+        if (anterior != null && !anterior.equals(nueva)) {
+            idPorCodigo.remove(anterior, id);
+        }
+        idPorCodigo.put(nueva, id);
+    }
+
+    /** Saca del índice el chip con ese id (baja o código desconocido). */
+    public synchronized void quitar(long id) {
+        String codigo = codigoPorId.remove(id);
+        if (codigo != null) {
+            idPorCodigo.remove(codigo, id);
+        }
+    }
+
+    public synchronized void limpiar() {
+        idPorCodigo.clear();
+        codigoPorId.clear();
+    }
+
+    public synchronized int getTamanio() {
+        return idPorCodigo.size();
+    }
+
+    private static String clave(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return habilitado ? "IndiceCodigos{codigos=" + getTamanio() + "}" : "IndiceCodigos{deshabilitado}";
+    }
+}
@@ -1,11 +1,25 @@
 package service;
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import entities.Mascota;
 import entities.Microchip;
+import dao.CatalogoDaoJdbc;
+import dao.ConflictoConcurrenciaException;
 import dao.MascotaDaoJdbc;
 import dao.MicrochipDaoJdbc;
+import dao.Pagina;
+import dao.PlanCarga;
+import config.DatabaseConnection;
+import config.TransactionManager;
 
 /**
  * Implementacion del servicio de negocio para la entidad Mascota.
@@ -23,14 +37,93 @@ public class MascotaService implements GenericService<Mascota> {
     
     private final MascotaDaoJdbc mascotaDao;
     private final MicrochipDaoJdbc microchipDao;
+
+    // Cachés de lectura por id; la de microchips se comparte con MicrochipService
+    private final CacheEntidades<Mascota> cacheMascotas;
+    private final CacheEntidades<Microchip> cacheMicrochips;
+
+    // Índice codigo → id compartido con MicrochipService
+    private final IndiceCodigos indiceCodigos;
+
+    // Autocompletado de nombres y dueños; se actualiza en cada escritura
+    private final AutocompletadoMascotas autocompletado;
+
+    // Búsqueda fonética de dueños; se actualiza en cada escritura
+    private final BusquedaFoneticaDuenios busquedaFonetica;
+
+    // Máximo de sugerencias por consulta de autocompletado o búsqueda fonética
+    private static final int MAXIMO_SUGERENCIAS = 50;
+
+    // Catálogos de especie/raza y veterinarias para validar sin consultar la BD
+    private final CatalogoService catalogos;
+
+    // Control de códigos de microchip repetidos en insertarTodos
+    private final VerificadorCodigos verificadorCodigos;
+
+    // Tope de filas por página para no volver a materializar la tabla entera
+    private static final int TAMANIO_MAXIMO_PAGINA = 500;
     
-    public MascotaService(MascotaDaoJdbc mascotaDao, MicrochipDaoJdbc microchipDao){
+    /**
+     * Constructor de AppMenu: comparte con MicrochipService la caché de microchips, el
+     * índice de códigos y los catálogos (una escritura en un service invalida lo que lee
+     * el otro), y mantiene el autocompletado y la búsqueda fonética que consulta el menú.
+     * Para otros usos, ver {@link #paraLotes(MascotaDaoJdbc, MicrochipDaoJdbc)}.
+     */
+    public MascotaService(MascotaDaoJdbc mascotaDao, MicrochipDaoJdbc microchipDao,
+                          CacheEntidades<Mascota> cacheMascotas, CacheEntidades<Microchip> cacheMicrochips,
+                          IndiceCodigos indiceCodigos, AutocompletadoMascotas autocompletado,
+                          BusquedaFoneticaDuenios busquedaFonetica, CatalogoService catalogos){
         if (mascotaDao == null || microchipDao == null) {
             throw new IllegalArgumentException("Los DAO no pueden ser null");
         }
+        if (cacheMascotas == null || cacheMicrochips == null) {
+            throw new IllegalArgumentException("Las cachés no pueden ser null");
+        }
+        if (indiceCodigos == null || autocompletado == null || busquedaFonetica == null) {
+            throw new IllegalArgumentException("Los índices no pueden ser null");
+        }
+        if (catalogos == null) {
+            throw new IllegalArgumentException("Los catálogos no pueden ser null");
+        }
        
         this.mascotaDao = mascotaDao;
         this.microchipDao = microchipDao;
+        this.cacheMascotas = cacheMascotas;
+        this.cacheMicrochips = cacheMicrochips;
+        this.indiceCodigos = indiceCodigos;
+        this.autocompletado = autocompletado;
+        this.busquedaFonetica = busquedaFonetica;
+        this.catalogos = catalogos;
+        this.verificadorCodigos = MicrochipService.crearVerificadorCodigos(microchipDao);
+    }
+
+    /**
+     * Service para procesos por lotes que no comparten estado con el menú (CargaMasiva,
+     * benchmarks): cachés e índice de códigos propios según db.properties, sin
+     * autocompletado ni búsqueda fonética, y catálogos sin cargar, es decir que especie,
+     * raza y veterinaria NO se validan contra ellos (solo las validaciones básicas).
+     */
+    public static MascotaService paraLotes(MascotaDaoJdbc mascotaDao, MicrochipDaoJdbc microchipDao) {
+        return new MascotaService(mascotaDao, microchipDao, crearCacheMascotas(),
+                MicrochipService.crearCacheMicrochips(), MicrochipService.crearIndiceCodigos(),
+                new AutocompletadoMascotas(false), new BusquedaFoneticaDuenios(false),
+                new CatalogoService(new CatalogoDaoJdbc()));
+    }
+
+    /** Caché de mascotas con la capacidad y el TTL de db.properties. */
+    public static CacheEntidades<Mascota> crearCacheMascotas() {
+        return new CacheEntidades<>(DatabaseConnection.getConfig().getCacheCapacidad(),
+                DatabaseConnection.getConfig().getCacheTtlMs(), Mascota::new);
+    }
+
+    /** Autocompletado habilitado o no según cache.autocompletado. */
+    public static AutocompletadoMascotas crearAutocompletado() {
+        return new AutocompletadoMascotas(DatabaseConnection.getConfig().isAutocompletadoHabilitado());
+    }
+
+    /** Búsqueda fonética habilitada o no según cache.busquedaFonetica. */
+    public static BusquedaFoneticaDuenios crearBusquedaFonetica() {
+        return new BusquedaFoneticaDuenios(DatabaseConnection.getConfig().isBusquedaFoneticaHabilitada());
     }
     
     // CRUD
@@ -45,13 +138,17 @@ public class MascotaService implements GenericService<Mascota> {
                 // chip nuevo
                 chip = microchipDao.crear(chip);
                 m.setMicrochip(chip);
-            } else {
+                indiceCodigos.registrar(chip.getCodigo(), chip.getId());
+            } else if (chip.hayModificaciones()) {
                 // chip existente
                 microchipDao.actualizar(chip);
+                invalidarMicrochip(chip);
             }
         }
         // Insertar mascota (el DAO se encarga de setear el id generado)
-        return mascotaDao.crear(m);
+        Mascota creada = mascotaDao.crear(m);
+        indexar(creada);
+        return creada;
     }
 
     @Override
@@ -61,18 +158,36 @@ public class MascotaService implements GenericService<Mascota> {
             throw new IllegalArgumentException("El ID de la mascota debe ser mayor a 0 para actualizar");
         }
 
-        // Actualizar microchip si existe
         Microchip chip = m.getMicrochip();
-        if (chip != null) {
-            if (chip.getId() == null || chip.getId() == 0L) {
-                chip = microchipDao.crear(chip);
-                m.setMicrochip(chip);
-            } else {
-                microchipDao.actualizar(chip);
+        try {
+            // Actualizar microchip si existe
+            if (chip != null) {
+                if (chip.getId() == null || chip.getId() == 0L) {
+                    chip = microchipDao.crear(chip);
+                    m.setMicrochip(chip);
+                    indiceCodigos.registrar(chip.getCodigo(), chip.getId());
+                } else if (chip.hayModificaciones()) {
+                    microchipDao.actualizar(chip);
+                    invalidarMicrochip(chip);
+                }
             }
-        }
 
-        mascotaDao.actualizar(m);
+            // Sin cambios (ni en la mascota ni en el enlace al chip): no se escribe ni se invalida nada
+            if (m.hayModificaciones()) {
+                mascotaDao.actualizar(m);
+                cacheMascotas.invalidar(m.getId());
+                indexar(m);
+            }
+        } catch (ConflictoConcurrenciaException e) {
+            // Otra terminal cambió la fila: lo cacheado es la versión vieja y la próxima lectura debe ir a la BD
+            cacheMascotas.invalidar(m.getId());
+            if (chip != null && chip.getId() != null) {
+                long chipId = chip.getId();
+                cacheMicrochips.invalidar(chipId);
+                cacheMascotas.invalidarSi(otra -> otra.getMicrochipId() != null && otra.getMicrochipId() == chipId);
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -80,9 +195,21 @@ public class MascotaService implements GenericService<Mascota> {
         if (id <= 0) {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
-        // la FK está en microchip con ON DELETE CASCADE,
-        // así que al eliminar la mascota se elimina el chip asociado.
+        // el DAO da de baja la mascota y su microchip en un único UPDATE
         mascotaDao.eliminar(id);
+        invalidarMascotaYSuMicrochip(id);
+        desindexar(id);
+    }
+
+    /**
+     * Recupera una mascota eliminada lógicamente (eliminado = FALSE) y, como
+     * contrapartida de eliminar, también su microchip.
+     */
+    public void recuperar(long id) throws Exception {
+        if (id <= 0) {
+            throw new IllegalArgumentException("El ID debe ser mayor a 0");
+        }
+        recuperarTodos(List.of(id));
     }
 
     @Override
@@ -90,7 +217,31 @@ public class MascotaService implements GenericService<Mascota> {
         if (id <= 0) {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
-        return mascotaDao.leer(id);
+        return cacheMascotas.obtener(id, mascotaDao::leer);
+    }
+
+    /**
+     * Mascota por id con el plan de carga pedido. COMPLETO pasa por la caché;
+     * DIFERIDO y SOLO_ID van directo al DAO (la caché guarda mascotas completas).
+     */
+    public Optional<Mascota> getById(long id, PlanCarga plan) throws Exception {
+        if (plan == PlanCarga.COMPLETO) {
+            return getById(id);
+        }
+        if (id <= 0) {
+            throw new IllegalArgumentException("El ID debe ser mayor a 0");
+        }
+        return mascotaDao.leer(id, plan);
+    }
+
+    /** Falsos positivos y memoria del filtro de Bloom usado por insertarTodos. */
+    public String getEstadisticasImportacion() {
+        return "Unicidad de códigos: " + verificadorCodigos;
+    }
+
+    /** Métricas de la caché de mascotas (aciertos, fallos, desalojos). */
+    public String getEstadisticasCache() {
+        return "Caché mascotas: " + cacheMascotas;
     }
 
     @Override
@@ -98,6 +249,217 @@ public class MascotaService implements GenericService<Mascota> {
         return mascotaDao.leerTodos();
     }
 
+    @Override
+    public long recorrerTodos(Consumer<? super Mascota> consumidor) throws Exception {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        return mascotaDao.recorrerTodos(consumidor);
+    }
+
+    /** Recorrido en streaming con el plan de carga pedido (SOLO_ID evita el JOIN con microchip). */
+    public long recorrerTodos(Consumer<? super Mascota> consumidor, PlanCarga plan) throws Exception {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        return mascotaDao.recorrerTodos(consumidor, plan);
+    }
+
+    @Override
+    public Pagina<Mascota> getPagina(long despuesDeId, int tamanio) throws Exception {
+        if (despuesDeId < 0) {
+            throw new IllegalArgumentException("El cursor no puede ser negativo");
+        }
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        return mascotaDao.leerPagina(despuesDeId, tamanio);
+    }
+
+    /** Página con el plan de carga pedido. */
+    public Pagina<Mascota> getPagina(long despuesDeId, int tamanio, PlanCarga plan) throws Exception {
+        if (despuesDeId < 0) {
+            throw new IllegalArgumentException("El cursor no puede ser negativo");
+        }
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        return mascotaDao.leerPagina(despuesDeId, tamanio, plan);
+    }
+
+    /**
+     * Página de mascotas activas cuyo dueño empieza con el texto dado
+     * (sin distinguir mayúsculas), ordenadas por dueño e id. La página siguiente
+     * se pide con el dueño y el id de la última mascota recibida; la primera,
+     * con {@code despuesDeDuenio} null.
+     */
+    public Pagina<Mascota> buscarPorDuenio(String duenio, String despuesDeDuenio, long despuesDeId,
+                                           int tamanio) throws Exception {
+        if (duenio == null || duenio.trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del dueño es obligatorio");
+        }
+        if (despuesDeId < 0) {
+            throw new IllegalArgumentException("El cursor no puede ser negativo");
+        }
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        return mascotaDao.buscarPorDuenio(duenio.trim(), despuesDeDuenio, despuesDeId, tamanio);
+    }
+
+    // Autocompletado
+
+    /**
+     * Carga el autocompletado recorriendo la tabla en streaming.
+     * @return cantidad de mascotas indexadas (0 si está deshabilitado)
+     */
+    public long cargarAutocompletado() throws Exception {
+        if (!autocompletado.isHabilitado()) {
+            return 0;
+        }
+        autocompletado.limpiar();
+        // Solo nombre y dueño: sin JOIN ni Microchip por fila
+        return mascotaDao.recorrerTodos(autocompletado::registrar, PlanCarga.SOLO_ID);
+    }
+
+    /** Hasta {@code k} nombres de mascota distintos que empiezan con el prefijo. */
+    public List<String> autocompletarNombres(String prefijo, int k) {
+        validarAutocompletado(prefijo, k);
+        return autocompletado.completarNombres(prefijo, k);
+    }
+
+    /** Hasta {@code k} dueños distintos que empiezan con el prefijo. */
+    public List<String> autocompletarDuenios(String prefijo, int k) {
+        validarAutocompletado(prefijo, k);
+        return autocompletado.completarDuenios(prefijo, k);
+    }
+
+    public String getEstadisticasAutocompletado() {
+        return "Autocompletado: " + autocompletado;
+    }
+
+    // Búsqueda fonética de dueños
+
+    /**
+     * Carga la búsqueda fonética en paralelo: el rango de ids se parte en tramos
+     * y cada hilo recorre el suyo en streaming con su propia conexión del pool.
+     * @return cantidad de mascotas indexadas (0 si está deshabilitada)
+     */
+    public long cargarBusquedaFonetica(int hilos) throws Exception {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser mayor a 0");
+        }
+        if (!busquedaFonetica.isHabilitado()) {
+            return 0;
+        }
+        busquedaFonetica.limpiar();
+        long maximo = mascotaDao.idMaximo();
+        long porHilo = Math.max(1, (maximo + hilos - 1) / hilos);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Long>> tramos = new ArrayList<>();
+            for (long desde = 1; desde <= maximo; desde += porHilo) {
+                long d = desde;
+                long h = Math.min(desde + porHilo - 1, maximo);
+                tramos.add(pool.submit(() -> mascotaDao.recorrerDuenios(d, h,
+                        (duenio, id) -> busquedaFonetica.registrar(id, duenio))));
+            }
+            long total = 0;
+            for (Future<Long> tramo : tramos) {
+                total += tramo.get();
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Hasta {@code k} dueños parecidos al texto aunque esté mal escrito
+     * ("Gonzales" encuentra "González"), del más al menos parecido.
+     * Se resuelve en memoria, sin recorrer la tabla.
+     */
+    public List<String> buscarDueniosParecidos(String texto, int k) {
+        validarAutocompletado(texto, k);
+        return busquedaFonetica.buscar(texto, k);
+    }
+
+    public String getEstadisticasBusquedaFonetica() {
+        return "Búsqueda fonética: " + busquedaFonetica;
+    }
+
+    public String getEstadisticasCatalogos() {
+        return "Catálogos: " + catalogos;
+    }
+
+    // Índices en memoria (autocompletado y búsqueda fonética) al día con cada escritura
+
+    private void indexar(Mascota m) {
+        autocompletado.registrar(m);
+        busquedaFonetica.registrar(m);
+    }
+
+    private void desindexar(long id) {
+        autocompletado.quitar(id);
+        busquedaFonetica.quitar(id);
+    }
+
+    private boolean hayIndices() {
+        return autocompletado.isHabilitado() || busquedaFonetica.isHabilitado();
+    }
+
+    private void validarAutocompletado(String prefijo, int k) {
+        if (prefijo == null || prefijo.trim().isEmpty()) {
+            throw new IllegalArgumentException("El prefijo no puede estar vacío");
+        }
+        if (k <= 0 || k > MAXIMO_SUGERENCIAS) {
+            throw new IllegalArgumentException("La cantidad de sugerencias debe estar entre 1 y " + MAXIMO_SUGERENCIAS);
+        }
+    }
+
+    // Invalidación de cachés
+
+    // El chip cambió: sale de su caché y de toda mascota cacheada que lo contenga
+    private void invalidarMicrochip(Microchip chip) {
+        long chipId = chip.getId();
+        indiceCodigos.registrar(chip.getCodigo(), chipId);
+        cacheMicrochips.invalidar(chipId);
+        cacheMascotas.invalidarSi(m -> m.getMicrochipId() != null && m.getMicrochipId() == chipId);
+    }
+
+    // La baja de una mascota también da de baja su chip; si no se sabe cuál es, se vacía esa caché
+    private void invalidarMascotaYSuMicrochip(long id) {
+        if (!invalidarMascotaYSuMicrochipConocido(id)) {
+            cacheMicrochips.limpiar();
+        }
+    }
+
+    // Versión masiva: la caché de microchips se vacía a lo sumo una vez
+    private void invalidarMascotasYSusMicrochips(Collection<Long> ids) {
+        boolean todosConocidos = true;
+        for (long id : ids) {
+            todosConocidos &= invalidarMascotaYSuMicrochipConocido(id);
+        }
+        if (!todosConocidos) {
+            cacheMicrochips.limpiar();
+        }
+    }
+
+    // Devuelve false si la mascota no estaba cacheada (no se sabe cuál es su chip)
+    private boolean invalidarMascotaYSuMicrochipConocido(long id) {
+        Optional<Mascota> cacheada = cacheMascotas.espiar(id);
+        cacheMascotas.invalidar(id);
+        if (cacheada.isEmpty()) {
+            return false;
+        }
+        Long chipId = cacheada.get().getMicrochipId();
+        if (chipId != null) {
+            cacheMicrochips.invalidar(chipId);
+            indiceCodigos.quitar(chipId);
+        }
+        return true;
+    }
+
     // Validaciones de negocio básicas
    
     private void validarMascota(Mascota m) {
@@ -113,11 +475,22 @@ public class MascotaService implements GenericService<Mascota> {
         if (m.getDuenio() == null || m.getDuenio().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del dueño es obligatorio");
         }
+        // Contra los catálogos en memoria; se guarda el nombre tal como figura en el catálogo
+        m.setEspecie(catalogos.validarEspecie(m.getEspecie()));
+        if (m.getRaza() != null) {
+            m.setRaza(catalogos.validarRaza(m.getEspecie(), m.getRaza()));
+        }
+        Microchip chip = m.getMicrochip();
+        if (chip != null && chip.getVeterinaria() != null && !chip.getVeterinaria().trim().isEmpty()) {
+            chip.setVeterinaria(catalogos.validarVeterinaria(chip.getVeterinaria()));
+        }
     }
     
     /**
      * Metodos transaccionales, usan una Conenection externa.
      * Se usan cuando MenuHandler maneja TransactionManager.
+     * Cachés e índices en memoria se actualizan recién con el commit
+     * (TransactionManager.despuesDelCommit); si se hace rollback no se tocan.
      */
 
     public Mascota insertar(Mascota m, Connection conn) throws Exception {
@@ -127,14 +500,19 @@ public class MascotaService implements GenericService<Mascota> {
         if (chip != null) {
             if (chip.getId() == null || chip.getId() == 0L) {
                 // Usamos la versión del DAO que recibe Connection
-                chip = microchipDao.crear(chip, conn);
-                m.setMicrochip(chip);
-            } else {
-            microchipDao.actualizar(chip, conn);
+                Microchip creado = microchipDao.crear(chip, conn);
+                m.setMicrochip(creado);
+                TransactionManager.despuesDelCommit(conn,
+                        () -> indiceCodigos.registrar(creado.getCodigo(), creado.getId()));
+            } else if (chip.hayModificaciones()) {
+                microchipDao.actualizar(chip, conn);
+                TransactionManager.despuesDelCommit(conn, () -> invalidarMicrochip(chip));
             }
         }
 
-        return mascotaDao.crear(m, conn);
+        Mascota creada = mascotaDao.crear(m, conn);
+        TransactionManager.despuesDelCommit(conn, () -> indexar(creada));
+        return creada;
     }
 
     public void actualizar(Mascota m, Connection conn) throws Exception {
@@ -144,17 +522,201 @@ public class MascotaService implements GenericService<Mascota> {
         }
 
         Microchip chip = m.getMicrochip();
-        if (chip != null) {
-            if (chip.getId() == null || chip.getId() == 0L) {
-                chip = microchipDao.crear(chip, conn);
-                m.setMicrochip(chip);
-            } else {
-                microchipDao.actualizar(chip, conn);
+        try {
+            if (chip != null) {
+                if (chip.getId() == null || chip.getId() == 0L) {
+                    Microchip creado = microchipDao.crear(chip, conn);
+                    m.setMicrochip(creado);
+                    TransactionManager.despuesDelCommit(conn,
+                            () -> indiceCodigos.registrar(creado.getCodigo(), creado.getId()));
+                } else if (chip.hayModificaciones()) {
+                    microchipDao.actualizar(chip, conn);
+                    TransactionManager.despuesDelCommit(conn, () -> invalidarMicrochip(chip));
+                }
+            }
+
+            // Sin cambios (ni en la mascota ni en el enlace al chip): no se escribe ni se invalida nada
+            if (m.hayModificaciones()) {
+                mascotaDao.actualizar(m, conn);
+                TransactionManager.despuesDelCommit(conn, () -> {
+                    cacheMascotas.invalidar(m.getId());
+                    indexar(m);
+                });
+            }
+        } catch (ConflictoConcurrenciaException e) {
+            // Otra terminal cambió la fila: lo cacheado es la versión vieja y la próxima lectura debe ir a la BD
+            cacheMascotas.invalidar(m.getId());
+            if (chip != null && chip.getId() != null) {
+                long chipId = chip.getId();
+                cacheMicrochips.invalidar(chipId);
+                cacheMascotas.invalidarSi(otra -> otra.getMicrochipId() != null && otra.getMicrochipId() == chipId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Alta masiva en una sola transacción propia.
+     * @see #insertarTodos(List, Connection)
+     */
+    public List<Mascota> insertarTodos(List<Mascota> mascotas) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            tx.startTransaction();
+            List<Mascota> creadas = insertarTodos(mascotas, conn);
+            tx.commit();
+            return creadas;
+        }
+    }
+
+    /**
+     * Alta masiva por lotes JDBC dentro de la transacción del llamador.
+     * 1. Valida todas las mascotas antes de tocar la BD, y que los códigos de los
+     *    microchips nuevos no existan (filtro de Bloom + confirmación en la BD)
+     * 2. Inserta por lotes los microchips nuevos (obtiene sus ids en orden)
+     * 3. Inserta por lotes las mascotas, enlazando microchip_id
+     */
+    public List<Mascota> insertarTodos(List<Mascota> mascotas, Connection conn) throws Exception {
+        if (mascotas == null) {
+            throw new IllegalArgumentException("La lista de mascotas no puede ser null");
+        }
+        List<Microchip> chipsNuevos = new ArrayList<>();
+        for (Mascota m : mascotas) {
+            validarMascota(m);
+            Microchip chip = m.getMicrochip();
+            if (chip != null) {
+                if (chip.getId() == null || chip.getId() == 0L) {
+                    chipsNuevos.add(chip);
+                } else if (chip.hayModificaciones()) {
+                    microchipDao.actualizar(chip, conn);
+                    TransactionManager.despuesDelCommit(conn, () -> invalidarMicrochip(chip));
+                }
+            }
+        }
+        verificadorCodigos.verificar(chipsNuevos, conn);
+        // Mismas instancias: al asignarse el id del chip queda visible desde su mascota
+        microchipDao.crearTodos(chipsNuevos, conn);
+        // El filtro de Bloom sí se actualiza ya: otros hilos de la carga deben ver estos códigos,
+        // y un código que termine deshecho solo agrega un falso positivo (se confirma en la BD)
+        verificadorCodigos.registrar(chipsNuevos);
+        List<Mascota> creadas = mascotaDao.crearTodos(mascotas, conn);
+        TransactionManager.despuesDelCommit(conn, () -> {
+            for (Microchip chip : chipsNuevos) {
+                indiceCodigos.registrar(chip.getCodigo(), chip.getId());
+            }
+            creadas.forEach(this::indexar);
+        });
+        return creadas;
+    }
+
+    /**
+     * Importación tolerante a filas con errores, en una sola transacción propia.
+     * @see #importar(List, TransactionManager)
+     */
+    public ResultadoImportacion importar(List<Mascota> mascotas) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            // Repetible: cada intento trabaja sobre copias nuevas de las mascotas
+            return tx.ejecutar(c -> importar(mascotas, tx));
+        }
+    }
+
+    /**
+     * Importa fila por fila dentro de la transacción activa de {@code tx}. Cada mascota
+     * (con el alta o actualización de su chip) es una unidad anidada con su savepoint:
+     * si una fila falla (validación, código repetido...) se deshace solo esa y se
+     * anota el motivo, y el resto se confirma en el único commit de quien llama.
+     *
+     * Cada fila se inserta sobre una copia: una fila rechazada no deja ids de filas
+     * deshechas en las mascotas recibidas. Un deadlock corta la importación entera.
+     *
+     * Es el camino de CargaMasiva en modo "tolerante" (en lugar de insertarTodos, que
+     * rechaza el bloque completo ante un solo código repetido).
+     */
+    public ResultadoImportacion importar(List<Mascota> mascotas, TransactionManager tx) throws Exception {
+        if (mascotas == null) {
+            throw new IllegalArgumentException("La lista de mascotas no puede ser null");
+        }
+        List<Mascota> importadas = new ArrayList<>();
+        Map<Integer, String> rechazadas = new TreeMap<>();
+        for (int i = 0; i < mascotas.size(); i++) {
+            if (mascotas.get(i) == null) {
+                rechazadas.put(i, "Mascota null");
+                continue;
+            }
+            Mascota copia = new Mascota(mascotas.get(i));
+            try {
+                // Los índices de una fila deshecha no se tocan: insertar() los deja para el commit
+                importadas.add(tx.ejecutarAnidado(c -> insertar(copia, c)));
+            } catch (Exception e) {
+                if (TransactionManager.esTransitorio(e)) {
+                    throw e;
+                }
+                rechazadas.put(i, e.getMessage());
             }
         }
+        return new ResultadoImportacion(importadas, rechazadas);
+    }
 
-        mascotaDao.actualizar(m, conn);
+    /**
+     * Baja lógica masiva (mascotas y sus microchips) en una sola transacción propia.
+     * @return cantidad de mascotas dadas de baja
+     */
+    public int eliminarTodos(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            // Repetible: se reintenta ante deadlock o lock wait timeout
+            return tx.ejecutar(c -> eliminarTodos(ids, c));
+        }
+    }
+
+    /** Baja lógica masiva dentro de la transacción del llamador. */
+    public int eliminarTodos(Collection<Long> ids, Connection conn) throws Exception {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de ids no puede ser null");
+        }
+        int eliminadas = mascotaDao.eliminarTodos(ids, conn);
+        List<Long> afectados = new ArrayList<>(ids);
+        TransactionManager.despuesDelCommit(conn, () -> {
+            invalidarMascotasYSusMicrochips(afectados);
+            afectados.forEach(this::desindexar);
+        });
+        return eliminadas;
+    }
+
+    /**
+     * Recuperación masiva (mascotas y sus microchips) en una sola transacción propia.
+     * @return cantidad de mascotas recuperadas
+     */
+    public int recuperarTodos(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            // Repetible: se reintenta ante deadlock o lock wait timeout
+            return tx.ejecutar(c -> recuperarTodos(ids, c));
+        }
+    }
+
+    /** Recuperación masiva dentro de la transacción del llamador. */
+    public int recuperarTodos(Collection<Long> ids, Connection conn) throws Exception {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de ids no puede ser null");
+        }
+        int recuperadas = mascotaDao.recuperarTodos(ids, conn);
+        // Se leen dentro de la transacción (ven la recuperación, con su chip activo):
+        // con el commit salen de las cachés y vuelven a los índices, código del chip incluido
+        List<Mascota> activas = mascotaDao.leerPorIds(ids, PlanCarga.COMPLETO, conn);
+        List<Long> afectados = new ArrayList<>(ids);
+        TransactionManager.despuesDelCommit(conn, () -> {
+            afectados.forEach(cacheMascotas::invalidar);
+            for (Mascota m : activas) {
+                Microchip chip = m.getMicrochip();
+                if (chip != null) {
+                    cacheMicrochips.invalidar(chip.getId());
+                    indiceCodigos.registrar(chip.getCodigo(), chip.getId());
+                }
+                indexar(m);
+            }
+        });
+        return recuperadas;
     }
 }
-    
-  
\ No newline at end of file
@@ -1,9 +1,19 @@
 package service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.sql.Connection;
+import dao.ConflictoConcurrenciaException;
 import dao.MicrochipDaoJdbc;
+import dao.Pagina;
+import config.DatabaseConnection;
+import config.TransactionManager;
+import entities.Mascota;
 import entities.Microchip;
 
 
@@ -22,18 +32,73 @@ public class MicrochipService implements GenericService<Microchip> {
 
     private final MicrochipDaoJdbc microchipDao;
 
-    public MicrochipService(MicrochipDaoJdbc microchipDao) {
+    // Caché de microchips por id y caché de mascotas (que contienen su chip), compartidas con MascotaService
+    private final CacheEntidades<Microchip> cacheMicrochips;
+    private final CacheEntidades<Mascota> cacheMascotas;
+
+    // Índice codigo → id, compartido con MascotaService (que también da de alta chips)
+    private final IndiceCodigos indiceCodigos;
+
+    // Catálogo de veterinarias para validar sin consultar la BD
+    private final CatalogoService catalogos;
+
+    // Control de códigos repetidos en las altas masivas (filtro de Bloom + confirmación en BD)
+    private final VerificadorCodigos verificadorCodigos;
+
+    // Tope de filas por página para no volver a materializar la tabla entera
+    private static final int TAMANIO_MAXIMO_PAGINA = 500;
+
+    /**
+     * Constructor de AppMenu: las cachés, el índice de códigos y los catálogos son los
+     * mismos que recibe MascotaService, así una escritura en uno invalida lo que lee el otro.
+     */
+    public MicrochipService(MicrochipDaoJdbc microchipDao, CacheEntidades<Microchip> cacheMicrochips,
+                            CacheEntidades<Mascota> cacheMascotas, IndiceCodigos indiceCodigos,
+                            CatalogoService catalogos) {
         if (microchipDao == null) {
             throw new IllegalArgumentException("MicrochipDaoJdbc no puede ser null");
         }
+        if (cacheMicrochips == null || cacheMascotas == null) {
+            throw new IllegalArgumentException("Las cachés no pueden ser null");
+        }
+        if (indiceCodigos == null) {
+            throw new IllegalArgumentException("El índice de códigos no puede ser null");
+        }
+        if (catalogos == null) {
+            throw new IllegalArgumentException("Los catálogos no pueden ser null");
+        }
         this.microchipDao = microchipDao;
+        this.cacheMicrochips = cacheMicrochips;
+        this.cacheMascotas = cacheMascotas;
+        this.indiceCodigos = indiceCodigos;
+        this.catalogos = catalogos;
+        this.verificadorCodigos = crearVerificadorCodigos(microchipDao);
+    }
+
+    /** Caché de microchips con la capacidad y el TTL de db.properties. */
+    public static CacheEntidades<Microchip> crearCacheMicrochips() {
+        return new CacheEntidades<>(DatabaseConnection.getConfig().getCacheCapacidad(),
+                DatabaseConnection.getConfig().getCacheTtlMs(), Microchip::new);
+    }
+
+    // Verificador dimensionado con cache.bloomFpr y cache.bloomMargen; el filtro se carga en el primer uso
+    static VerificadorCodigos crearVerificadorCodigos(MicrochipDaoJdbc microchipDao) {
+        return new VerificadorCodigos(microchipDao, DatabaseConnection.getConfig().getBloomTasaFalsosPositivos(),
+                DatabaseConnection.getConfig().getBloomMargen());
+    }
+
+    /** Índice de códigos, habilitado o no según cache.indiceCodigos. */
+    public static IndiceCodigos crearIndiceCodigos() {
+        return new IndiceCodigos(DatabaseConnection.getConfig().isIndiceCodigosHabilitado());
     }
 
     @Override
     public Microchip insertar(Microchip mc) throws Exception {
         validarMicrochip(mc);
         // El DAO se encarga de insertar y setear el ID generado
-        return microchipDao.crear(mc);
+        Microchip creado = microchipDao.crear(mc);
+        indiceCodigos.registrar(creado.getCodigo(), creado.getId());
+        return creado;
     }
 
     @Override
@@ -42,7 +107,16 @@ public class MicrochipService implements GenericService<Microchip> {
         if (mc.getId() == null || mc.getId() <= 0) {
             throw new IllegalArgumentException("El ID del microchip debe ser mayor a 0 para actualizar");
         }
-        microchipDao.actualizar(mc);
+        if (!mc.hayModificaciones()) {
+            return; // nada que escribir
+        }
+        try {
+            microchipDao.actualizar(mc);
+        } finally {
+            // También ante un conflicto de versión: lo cacheado ya no coincide con la BD
+            invalidar(mc.getId());
+        }
+        indiceCodigos.registrar(mc.getCodigo(), mc.getId());
     }
 
     @Override
@@ -51,6 +125,19 @@ public class MicrochipService implements GenericService<Microchip> {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
         microchipDao.eliminar(id);
+        invalidar(id);
+        indiceCodigos.quitar(id);
+    }
+
+    /**
+     * Recupera un microchip eliminado lógicamente (eliminado = FALSE).
+     */
+    public void recuperar(long id) throws Exception {
+        if (id <= 0) {
+            throw new IllegalArgumentException("El ID debe ser mayor a 0");
+        }
+        microchipDao.recuperar(id);
+        invalidar(id);
     }
 
     @Override
@@ -58,7 +145,70 @@ public class MicrochipService implements GenericService<Microchip> {
         if (id <= 0) {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
-        return microchipDao.leer(id);
+        return cacheMicrochips.obtener(id, microchipDao::leer);
+    }
+
+    /**
+     * Busca un microchip activo por su código (el que se lee al escanearlo).
+     * Con el índice cargado, un acierto se resuelve con la caché por id sin ir a la BD;
+     * si el código no está en el índice (o quedó desactualizado) se consulta la BD
+     * y el resultado se registra para la próxima vez.
+     */
+    public Optional<Microchip> buscarPorCodigo(String codigo) throws Exception {
+        if (codigo == null || codigo.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del microchip es obligatorio");
+        }
+        String buscado = codigo.trim();
+        Long id = indiceCodigos.obtener(buscado);
+        if (id != null) {
+            Optional<Microchip> mc = getById(id);
+            if (mc.isPresent() && mc.get().getCodigo().equalsIgnoreCase(buscado)) {
+                return mc;
+            }
+            indiceCodigos.quitar(id);
+        }
+        Optional<Microchip> mc = microchipDao.buscarPorCodigo(buscado);
+        mc.ifPresent(m -> indiceCodigos.registrar(m.getCodigo(), m.getId()));
+        return mc;
+    }
+
+    /**
+     * Carga el índice de códigos con todos los microchips activos (streaming de id y código).
+     * @return cantidad de códigos cargados (0 si el índice está deshabilitado)
+     */
+    public long cargarIndiceCodigos() throws Exception {
+        if (!indiceCodigos.isHabilitado()) {
+            return 0;
+        }
+        indiceCodigos.limpiar();
+        return microchipDao.recorrerCodigos(false, indiceCodigos::registrar);
+    }
+
+    public String getEstadisticasIndice() {
+        return "Índice de códigos: " + indiceCodigos;
+    }
+
+    /** Falsos positivos y memoria del filtro de Bloom de las altas masivas. */
+    public String getEstadisticasImportacion() {
+        return "Unicidad de códigos: " + verificadorCodigos;
+    }
+
+    /** Métricas de la caché de microchips (aciertos, fallos, desalojos). */
+    public String getEstadisticasCache() {
+        return "Caché microchips: " + cacheMicrochips;
+    }
+
+    // El chip sale de su caché y de cualquier mascota cacheada que lo contenga
+    private void invalidar(long id) {
+        cacheMicrochips.invalidar(id);
+        cacheMascotas.invalidarSi(m -> m.getMicrochipId() != null && m.getMicrochipId() == id);
+    }
+
+    // Lo mismo para varios chips, con una sola pasada por la caché de mascotas
+    private void invalidarTodos(Collection<Long> ids) {
+        Set<Long> chips = new HashSet<>(ids);
+        chips.forEach(cacheMicrochips::invalidar);
+        cacheMascotas.invalidarSi(m -> m.getMicrochipId() != null && chips.contains(m.getMicrochipId()));
     }
 
     @Override
@@ -66,6 +216,25 @@ public class MicrochipService implements GenericService<Microchip> {
         return microchipDao.leerTodos();
     }
 
+    @Override
+    public long recorrerTodos(Consumer<? super Microchip> consumidor) throws Exception {
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser null");
+        }
+        return microchipDao.recorrerTodos(consumidor);
+    }
+
+    @Override
+    public Pagina<Microchip> getPagina(long despuesDeId, int tamanio) throws Exception {
+        if (despuesDeId < 0) {
+            throw new IllegalArgumentException("El cursor no puede ser negativo");
+        }
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        return microchipDao.leerPagina(despuesDeId, tamanio);
+    }
+
  
     // Validaciones de negocio para Microchip
     
@@ -82,14 +251,105 @@ public class MicrochipService implements GenericService<Microchip> {
         if (mc.getVeterinaria() == null || mc.getVeterinaria().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre de la veterinaria es obligatorio");
         }
+        mc.setVeterinaria(catalogos.validarVeterinaria(mc.getVeterinaria()));
         // observaciones puede ser opcional, así que no lo validamos como obligatorio
     }
+    /**
+     * Variantes transaccionales: cachés e índices en memoria se actualizan recién
+     * con el commit de quien llama (TransactionManager.despuesDelCommit).
+     */
     public Microchip insertar(Microchip mc, Connection conn) throws Exception {
-        return microchipDao.crear(mc, conn);
+        Microchip creado = microchipDao.crear(mc, conn);
+        TransactionManager.despuesDelCommit(conn,
+                () -> indiceCodigos.registrar(creado.getCodigo(), creado.getId()));
+        return creado;
     }
 
     public void actualizar(Microchip mc, Connection conn) throws Exception {
-        microchipDao.actualizar(mc, conn);
-}
+        if (!mc.hayModificaciones()) {
+            return; // nada que escribir
+        }
+        try {
+            microchipDao.actualizar(mc, conn);
+        } catch (ConflictoConcurrenciaException e) {
+            // Lo cacheado ya no coincide con lo confirmado en la BD
+            invalidar(mc.getId());
+            throw e;
+        }
+        TransactionManager.despuesDelCommit(conn, () -> {
+            invalidar(mc.getId());
+            indiceCodigos.registrar(mc.getCodigo(), mc.getId());
+        });
+    }
+
+    /**
+     * Alta masiva por lotes JDBC dentro de la transacción del llamador.
+     * Valida todos los microchips, incluida la unicidad del código, antes de enviar el primer lote.
+     */
+    public List<Microchip> insertarTodos(List<Microchip> microchips, Connection conn) throws Exception {
+        if (microchips == null) {
+            throw new IllegalArgumentException("La lista de microchips no puede ser null");
+        }
+        for (Microchip mc : microchips) {
+            validarMicrochip(mc);
+        }
+        verificadorCodigos.verificar(microchips, conn);
+        List<Microchip> creados = microchipDao.crearTodos(microchips, conn);
+        verificadorCodigos.registrar(creados);
+        TransactionManager.despuesDelCommit(conn, () -> {
+            for (Microchip mc : creados) {
+                indiceCodigos.registrar(mc.getCodigo(), mc.getId());
+            }
+        });
+        return creados;
+    }
+
+    /**
+     * Baja lógica masiva en una sola transacción propia.
+     * @return cantidad de microchips dados de baja
+     */
+    public int eliminarTodos(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            // Repetible: se reintenta ante deadlock o lock wait timeout
+            return tx.ejecutar(c -> eliminarTodos(ids, c));
+        }
+    }
 
+    /** Baja lógica masiva dentro de la transacción del llamador. */
+    public int eliminarTodos(Collection<Long> ids, Connection conn) throws Exception {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de ids no puede ser null");
+        }
+        int eliminados = microchipDao.eliminarTodos(ids, conn);
+        List<Long> afectados = new ArrayList<>(ids);
+        TransactionManager.despuesDelCommit(conn, () -> {
+            invalidarTodos(afectados);
+            afectados.forEach(indiceCodigos::quitar);
+        });
+        return eliminados;
+    }
+
+    /**
+     * Recuperación masiva en una sola transacción propia.
+     * @return cantidad de microchips recuperados
+     */
+    public int recuperarTodos(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             TransactionManager tx = new TransactionManager(conn)) {
+            // Repetible: se reintenta ante deadlock o lock wait timeout
+            return tx.ejecutar(c -> recuperarTodos(ids, c));
+        }
+    }
+
+    /** Recuperación masiva dentro de la transacción del llamador. */
+    public int recuperarTodos(Collection<Long> ids, Connection conn) throws Exception {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de ids no puede ser null");
+        }
+        int recuperados = microchipDao.recuperarTodos(ids, conn);
+        List<Long> afectados = new ArrayList<>(ids);
+        TransactionManager.despuesDelCommit(conn, () -> invalidarTodos(afectados));
+        return recuperados;
+    }
 }
@@ -0,0 +1,38 @@
+package service;
+
+import entities.Mascota;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de {@link MascotaService#importar(List)}: las mascotas que quedaron
+ * confirmadas y, por posición en la lista original, el motivo de cada rechazo.
+ *
+ * @author Astrid
+ */
+public final class ResultadoImportacion {
+
+    private final List<Mascota> importadas;
+    private final Map<Integer, String> rechazadas;
+
+    ResultadoImportacion(List<Mascota> importadas, Map<Integer, String> rechazadas) {
+        this.importadas = Collections.unmodifiableList(importadas);
+        this.rechazadas = Collections.unmodifiableMap(rechazadas);
+    }
+
+    /** Copias de las mascotas importadas, con los ids generados. */
+    public List<Mascota> getImportadas() {
+        return importadas;
+    }
+
+    /** Posición en la lista recibida → motivo del rechazo, en orden de posición. */
+    public Map<Integer, String> getRechazadas() {
+        return rechazadas;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacion{importadas=" + importadas.size() + ", rechazadas=" + rechazadas.size() + "}";
+    }
+}
@@ -0,0 +1,133 @@
+package service;
+
+import dao.MicrochipDaoJdbc;
+import entities.Microchip;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Control de unicidad de microchip.codigo para las altas masivas.
+ *
+ * Un código repetido recién aparece en MySQL como violación del UNIQUE y aborta
+ * el lote entero. Antes de insertar, cada código se consulta en un FiltroBloom
+ * con todos los códigos existentes (incluidas las bajas lógicas, que el UNIQUE
+ * también cuenta): si el filtro dice que no está, es seguro; los "puede estar"
+ * se confirman contra la BD con una sola consulta IN por tramo.
+ *
+ * El filtro se construye en el primer uso (COUNT + recorrido en streaming) y se
+ * reconstruye si se agregan más códigos que su capacidad. Se arma sobre la conexión
+ * del llamador: pedir otra al pool mientras se retiene el monitor podía dejar a los
+ * hilos de CargaMasiva esperándose entre sí cuando hilos == pool.maxSize.
+ */
+final class VerificadorCodigos {
+
+    private final MicrochipDaoJdbc microchipDao;
+    private final double tasaObjetivo;
+    private final long margen;
+    private volatile FiltroBloom filtro;
+
+    private final LongAdder verificados = new LongAdder();
+    private final LongAdder sospechosos = new LongAdder();
+    private final LongAdder confirmados = new LongAdder();
+
+    /**
+     * @param tasaObjetivo tasa de falsos positivos buscada
+     * @param margen       altas previstas por encima de los códigos existentes
+     */
+    VerificadorCodigos(MicrochipDaoJdbc microchipDao, double tasaObjetivo, long margen) {
+        this.microchipDao = microchipDao;
+        this.tasaObjetivo = tasaObjetivo;
+        this.margen = margen;
+    }
+
+    /**
+     * Verifica que ningún código esté repetido en la lista ni exista en la BD.
+     * La consulta de confirmación usa la conexión del llamador, así ve sus altas sin confirmar.
+     *
+     * @throws IllegalArgumentException con los códigos repetidos
+     */
+    void verificar(List<Microchip> chips, Connection conn) {
+        FiltroBloom f = filtro(conn);
+        Set<String> vistos = new HashSet<>();
+        List<String> repetidos = new ArrayList<>();
+        List<String> posibles = new ArrayList<>();
+        for (Microchip mc : chips) {
+            if (mc.getCodigo() == null) {
+                continue; // lo rechaza el NOT NULL de la columna
+            }
+            String clave = clave(mc.getCodigo());
+            if (!vistos.add(clave)) {
+                repetidos.add(mc.getCodigo());
+            } else if (f.puedeContener(clave)) {
+                posibles.add(mc.getCodigo());
+            }
+        }
+        verificados.add(chips.size());
+        if (!posibles.isEmpty()) {
+            sospechosos.add(posibles.size());
+            Set<String> existentes = microchipDao.codigosExistentes(posibles, conn);
+            confirmados.add(existentes.size());
+            repetidos.addAll(existentes);
+        }
+        if (!repetidos.isEmpty()) {
+            throw new IllegalArgumentException("Códigos de microchip ya existentes o repetidos: "
+                    + resumir(repetidos));
+        }
+    }
+
+    /** Agrega al filtro los códigos recién insertados. */
+    void registrar(List<Microchip> creados) {
+        FiltroBloom f = filtro;
+        if (f == null) {
+            return; // se cargarán de la BD al construirlo
+        }
+        for (Microchip mc : creados) {
+            if (mc.getCodigo() != null) {
+                f.agregar(clave(mc.getCodigo()));
+            }
+        }
+    }
+
+    private FiltroBloom filtro(Connection conn) {
+        FiltroBloom f = filtro;
+        if (f != null && f.getElementos() <= f.getCapacidad()) {
+            return f;
+        }
+        synchronized (this) {
+            f = filtro;
+            if (f == null || f.getElementos() > f.getCapacidad()) {
+                FiltroBloom nuevo = new FiltroBloom(microchipDao.contarCodigos(conn) + margen, tasaObjetivo);
+                microchipDao.recorrerCodigos(true, (codigo, id) -> nuevo.agregar(clave(codigo)), conn);
+                filtro = f = nuevo;
+            }
+            return f;
+        }
+    }
+
+    // Misma comparación que el UNIQUE de MySQL (collation sin distinción de mayúsculas)
+    private static String clave(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String resumir(List<String> codigos) {
+        int mostrar = Math.min(codigos.size(), 10);
+        String lista = String.join(", ", codigos.subList(0, mostrar));
+        return codigos.size() > mostrar ? lista + " (y " + (codigos.size() - mostrar) + " más)" : lista;
+    }
+
+    @Override
+    public String toString() {
+        long posibles = sospechosos.sum();
+        long falsos = posibles - confirmados.sum();
+        String observada = verificados.sum() == 0 ? "-"
+                : String.format("%.4f%%", 100.0 * falsos / verificados.sum());
+        return "VerificadorCodigos{verificados=" + verificados.sum() + ", sospechosos=" + posibles
+                + ", confirmados=" + confirmados.sum() + ", falsosPositivos=" + falsos
+                + ", fpObservada=" + observada + ", " + (filtro == null ? "filtro sin construir" : filtro) + "}";
+    }
+}